@@ -0,0 +1,24 @@
+package org.junit.contrib.theories;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+/**
+ * <p>Marking a public static void method of a class run with the {@link Theories} runner with this annotation
+ * causes it to be run each time the runner has finished all of a theory's assignments that begin with a given set
+ * of values for its leading parameters. The method receives those values.</p>
+ *
+ * <p>Methods are matched to theories in the same way as {@link BeforePrefix} methods are, and run even if a
+ * {@link BeforePrefix} method or one of the assignments failed.</p>
+ *
+ * @see BeforePrefix
+ * @see Theories
+ * @see Theory
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface AfterPrefix {
+}
@@ -0,0 +1,46 @@
+package org.junit.contrib.theories;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+/**
+ * <p>Marking a public static void method of a class run with the {@link Theories} runner with this annotation
+ * causes it to be run each time the runner assigns values to a theory's leading parameters, before any of the
+ * assignments that begin with those values are run. The method receives the values assigned so far.</p>
+ *
+ * <p>A method with <em>n</em> parameters applies to every theory whose first <em>n</em> parameters (counting
+ * the parameters of the class's constructor first) can be passed to it. It runs once per distinct value of those
+ * <em>n</em> parameters, rather than once per complete assignment as a {@link org.junit.Before} method would,
+ * which makes it the place for expensive setup that depends only on the leading parameters.</p>
+ *
+ * <p>If the method fails, the assignments that begin with its values are not run, and the failure is reported
+ * against those values. If it violates an assumption, those assignments are skipped.</p>
+ *
+ * <pre>
+ * &#064;BeforePrefix
+ * public static void loadDataset(Path file) {
+ *     dataset = Dataset.load(file);
+ * }
+ *
+ * &#064;AfterPrefix
+ * public static void unloadDataset(Path file) {
+ *     dataset = null;
+ * }
+ *
+ * &#064;Theory
+ * public void queriesTerminate(&#064;FromDataPoints("files") Path file, String query) {
+ *     // the dataset for each file is loaded once, for all queries
+ * }
+ * </pre>
+ *
+ * @see AfterPrefix
+ * @see Theories
+ * @see Theory
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface BeforePrefix {
+}
@@ -0,0 +1,27 @@
+package org.junit.contrib.theories;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+/**
+ * <p>Marking a class run with the {@link Theories} runner with this annotation causes its theories and tests to be
+ * run concurrently with one another, rather than one after the other.</p>
+ *
+ * <p>Methods run on a pool of threads shared by every such class in the JVM, whose size is given by the system
+ * property {@value org.junit.contrib.theories.internal.ConcurrentTheoryScheduler#THREADS_PROPERTY}, and defaults
+ * to the number of available processors. Theories with the most parameters, and so likely the most assignments,
+ * are started first. Each {@link DataPoints} method of the class is invoked at most once, and its values are
+ * shared by all the theories that use them, so such methods must not return values that theories mutate.</p>
+ *
+ * <p>The assignments of any one theory are still tried one after another.</p>
+ *
+ * @see Theories
+ * @see Theory
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface ConcurrentTheories {
+}
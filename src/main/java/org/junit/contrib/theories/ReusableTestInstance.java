@@ -0,0 +1,42 @@
+package org.junit.contrib.theories;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+/**
+ * <p>Marking a class run with the {@link Theories} runner with this annotation declares that its instances hold no
+ * state that one theory assignment could leak into another, and so may be reused.</p>
+ *
+ * <p>Ordinarily a new instance of the class is created for every assignment of a theory's parameters. With this
+ * annotation, an instance is created once for each distinct assignment of the constructor's parameters, and then
+ * used for every assignment of the theory method's parameters that follows it. Classes whose constructors do
+ * expensive work, such as building parsers or in-memory indexes, benefit most.</p>
+ *
+ * <pre>
+ * &#064;RunWith(Theories.class)
+ * &#064;ReusableTestInstance
+ * public class ParserTheories {
+ *     private final Parser parser;
+ *
+ *     public ParserTheories(Grammar grammar) {
+ *         // built once per grammar, rather than once per grammar and input
+ *         parser = Parser.compile(grammar);
+ *     }
+ *
+ *     &#064;Theory
+ *     public void parsesWithoutError(String input) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @see Theories
+ * @see Theory
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface ReusableTestInstance {
+}
@@ -0,0 +1,23 @@
+package org.junit.contrib.theories;
+
+import java.util.List;
+
+/**
+ * <p>Proposes simpler values to try in place of a value that made a {@link Theory} fail, when the theory
+ * {@link Theory#shrinkFailures() shrinks its failures}.</p>
+ *
+ * <p>Only proposals that the parameter can accept, and that are smaller than the value by the runner's measure
+ * (the length of a string, array or collection, the magnitude of a number, or else the length of the value's
+ * string form), are tried. Subclasses must have a public no-argument constructor.</p>
+ *
+ * @see ShrinksWith
+ */
+public abstract class Shrinker {
+    /**
+     * @param value a value that made the theory fail
+     * @param sig the parameter the value was assigned to
+     * @return values to try instead, most promising first; they are iterated over in order, and only as far as the
+     * shrinking budget allows, so the list may make each only when it is reached
+     */
+    public abstract List<?> shrink(Object value, ParameterSignature sig);
+}
@@ -0,0 +1,28 @@
+package org.junit.contrib.theories;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+/**
+ * <p>Marking a {@link Theory} method parameter with this annotation causes values that made the theory fail to
+ * be simplified by the named {@link Shrinker}, rather than by the runner's own, which knows only about strings,
+ * collections and numbers.</p>
+ *
+ * <p>As with {@link ParametersSuppliedBy}, annotations can themselves be marked with this annotation, and then
+ * used in its place.</p>
+ *
+ * <pre>
+ * &#064;Theory(shrinkFailures = true)
+ * public void roundTrips(&#064;ShrinksWith(DocumentShrinker.class) Document document) {
+ *     ...
+ * }
+ * </pre>
+ */
+@Retention(RUNTIME)
+@Target({ ANNOTATION_TYPE, PARAMETER })
+public @interface ShrinksWith {
+    Class<? extends Shrinker> value();
+}
@@ -1,34 +1,104 @@
 package org.junit.contrib.theories;
 
+import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.AssumptionViolatedException;
+import org.junit.Before;
+import org.junit.contrib.theories.internal.AssignmentExecutor;
+import org.junit.contrib.theories.internal.AssignmentShrinker;
 import org.junit.contrib.theories.internal.Assignments;
+import org.junit.contrib.theories.internal.Checkpoint;
+import org.junit.contrib.theories.internal.CombinationGuard;
+import org.junit.contrib.theories.internal.Combinations;
+import org.junit.contrib.theories.internal.CompletionWindow;
+import org.junit.contrib.theories.internal.ConcurrentTheoryScheduler;
+import org.junit.contrib.theories.internal.DataPointsMemoizingTestClass;
+import org.junit.contrib.theories.internal.DryRun;
+import org.junit.contrib.theories.internal.FailOnWatchdogTimeout;
+import org.junit.contrib.theories.internal.FailureCollector;
+import org.junit.contrib.theories.internal.FailureDatabase;
+import org.junit.contrib.theories.internal.ForkedTheory;
+import org.junit.contrib.theories.internal.IncrementalRecord;
+import org.junit.contrib.theories.internal.LatencyReport;
 import org.junit.contrib.theories.internal.ParameterizedAssertionError;
+import org.junit.contrib.theories.internal.PrefixFixtures;
+import org.junit.contrib.theories.internal.ReproductionToken;
+import org.junit.contrib.theories.internal.ResourceAccounting;
+import org.junit.contrib.theories.internal.Shard;
+import org.junit.contrib.theories.internal.SupplierProfile;
+import org.junit.contrib.theories.internal.TheoryEvents;
+import org.junit.contrib.theories.internal.TheoryListeners;
+import org.junit.contrib.theories.internal.TheoryMonitor;
+import org.junit.contrib.theories.internal.TheoryProgress;
+import org.junit.contrib.theories.internal.TraceRecorder;
+import org.junit.contrib.theories.internal.Watchdog;
+import org.junit.internal.runners.statements.RunAfters;
+import org.junit.internal.runners.statements.RunBefores;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.MultipleFailureException;
 import org.junit.runners.model.Statement;
 import org.junit.runners.model.TestClass;
+import org.junit.runners.model.TestTimedOutException;
 
+import static java.util.concurrent.TimeUnit.*;
 import static org.junit.contrib.theories.ParameterSignature.*;
 
 public class Theories extends BlockJUnit4ClassRunner {
+    private final ReproductionToken fReproduction;
+
     public Theories(Class<?> klass) throws InitializationError {
         super(klass);
+
+        try {
+            fReproduction = ReproductionToken.fromSystemProperty();
+        } catch (IllegalArgumentException e) {
+            throw new InitializationError(e);
+        }
+
+        if (isConcurrent(klass)) {
+            setScheduler(new ConcurrentTheoryScheduler());
+        }
+    }
+
+    @Override protected TestClass createTestClass(Class<?> testClass) {
+        return isConcurrent(testClass) ? new DataPointsMemoizingTestClass(testClass) : super.createTestClass(testClass);
+    }
+
+    private static boolean isConcurrent(Class<?> testClass) {
+        return testClass != null && testClass.isAnnotationPresent(ConcurrentTheories.class);
     }
 
     @Override protected void collectInitializationErrors(List<Throwable> errors) {
         super.collectInitializationErrors(errors);
         validateDataPointFields(errors);
         validateDataPointMethods(errors);
+        validatePrefixFixtures(BeforePrefix.class, errors);
+        validatePrefixFixtures(AfterPrefix.class, errors);
+        CombinationGuard.validate(getTestClass(), getTestClass().getAnnotatedMethods(Theory.class), errors);
     }
 
     private void validateDataPointFields(List<Throwable> errors) {
@@ -59,6 +129,15 @@ public class Theories extends BlockJUnit4ClassRunner {
         }
     }
 
+    private void validatePrefixFixtures(Class<? extends Annotation> annotation, List<Throwable> errors) {
+        for (FrameworkMethod each : getTestClass().getAnnotatedMethods(annotation)) {
+            each.validatePublicVoid(true, errors);
+            if (each.getMethod().getParameterCount() == 0) {
+                errors.add(new Error("Method " + each.getName() + " should have parameters"));
+            }
+        }
+    }
+
     @Override protected void validateConstructor(List<Throwable> errors) {
         validateOnlyOneConstructor(errors);
     }
@@ -66,7 +145,11 @@ public class Theories extends BlockJUnit4ClassRunner {
     @Override protected void validateTestMethods(List<Throwable> errors) {
         for (FrameworkMethod each : computeTestMethods()) {
             if (each.getAnnotation(Theory.class) != null) {
-                each.validatePublicVoid(false, errors);
+                if (CompletionStage.class.isAssignableFrom(each.getReturnType())) {
+                    validatePublicInstanceMethod(each, errors);
+                } else {
+                    each.validatePublicVoid(false, errors);
+                }
                 each.validateNoTypeParametersOnArgs(errors);
             } else {
                 each.validatePublicVoidNoArg(false, errors);
@@ -81,6 +164,15 @@ public class Theories extends BlockJUnit4ClassRunner {
         }
     }
 
+    private static void validatePublicInstanceMethod(FrameworkMethod method, List<Throwable> errors) {
+        if (Modifier.isStatic(method.getMethod().getModifiers())) {
+            errors.add(new Exception("Method " + method.getName() + "() should not be static"));
+        }
+        if (!Modifier.isPublic(method.getMethod().getModifiers())) {
+            errors.add(new Exception("Method " + method.getName() + "() should be public"));
+        }
+    }
+
     private void validateParameterSupplier(Class<? extends ParameterSupplier> supplierClass, List<Throwable> errors) {
         Constructor<?>[] constructors = supplierClass.getConstructors();
 
@@ -100,128 +192,1036 @@ public class Theories extends BlockJUnit4ClassRunner {
         List<FrameworkMethod> testMethods = new ArrayList<>(super.computeTestMethods());
         List<FrameworkMethod> theoryMethods = getTestClass().getAnnotatedMethods(Theory.class);
         testMethods.removeAll(theoryMethods);
+
+        if (isConcurrent(getTestClass().getJavaClass())) {
+            // start the theories likely to take longest first: assignments grow exponentially with parameters
+            List<FrameworkMethod> longestFirst = new ArrayList<>(theoryMethods);
+            longestFirst.sort((first, second) ->
+                    second.getMethod().getParameterCount() - first.getMethod().getParameterCount());
+            longestFirst.addAll(testMethods);
+            return longestFirst;
+        }
+
         testMethods.addAll(theoryMethods);
         return testMethods;
     }
 
+    /**
+     * Registers a listener to hear about every theory run in this JVM from now on.
+     */
+    public static void addTheoryListener(TheoryListener listener) {
+        TheoryListeners.add(listener);
+    }
+
+    public static void removeTheoryListener(TheoryListener listener) {
+        TheoryListeners.remove(listener);
+    }
+
+    @Override protected boolean isIgnored(FrameworkMethod child) {
+        return super.isIgnored(child)
+                || DryRun.isEnabled() && child.getAnnotation(Theory.class) == null
+                || fReproduction != null && !fReproduction.names(getTestClass().getName() + "#" + child.getName());
+    }
+
+    @Override protected Statement classBlock(RunNotifier notifier) {
+        final Statement block = super.classBlock(notifier);
+        return new Statement() {
+            @Override public void evaluate() throws Throwable {
+                SupplierProfile profile = SupplierProfile.start(getTestClass().getJavaClass());
+                try {
+                    block.evaluate();
+                } finally {
+                    if (profile != null) {
+                        profile.finish();
+                        profile.save();
+                    }
+                }
+            }
+        };
+    }
+
     @Override public Statement methodBlock(FrameworkMethod method) {
-        return new TheoryAnchor(method, getTestClass());
+        return new TheoryAnchor(method, getTestClass(), fReproduction);
     }
 
     public static class TheoryAnchor extends Statement {
         private final FrameworkMethod fTestMethod;
         private final TestClass fTestClass;
-        private final List<AssumptionViolatedException> fInvalidParameters = new ArrayList<>();
+        private final Theory fTheory;
+        private final List<AssumptionViolatedException> fInvalidParameters =
+                Collections.synchronizedList(new ArrayList<AssumptionViolatedException>());
+        private final AtomicInteger successes = new AtomicInteger();
+        private final FailureCollector fFailures;
+        private final boolean fReuseInstances;
+        private final PrefixFixtures fPrefixFixtures;
+        private final Shard fShard;
+        private final ReproductionToken fReproduction;
 
-        private int successes = 0;
+        private int fSliceIndex = 0;
+        private int fSliceCount = 1;
+        // written only by the thread enumerating assignments, and read from others by the monitor and progress reports
+        private volatile long fOrdinal;
+        // counted only when something needs the count, and enumerated from only when something needs to go
+        // straight to an assignment by number; otherwise each prefix asks the suppliers afresh
+        private volatile Combinations fCounted;
+        private Combinations fCombinations;
+        private Checkpoint fCheckpoint;
+        private long fResumeFrom;
+        private int fResumedAssumptionViolations;
+        private FailureDatabase fFailureDatabase;
+        private IncrementalRecord fIncrementalRecord;
+        private Combinations fRecordedCombinations;
+        private IncrementalRecord.Delta fDelta;
+        private NavigableSet<Long> fReplaying;
+        private Set<Long> fReplayed = Collections.emptySet();
+        private volatile AssignmentExecutor fExecutor;
+        private volatile CompletionWindow fCompletions;
+        private volatile boolean fStopped;
+        private List<PotentialAssignment> fReusableInstanceKey;
+        private Object fReusableInstance;
+        private Watchdog.Watch fTheoryWatch;
+        private final AtomicBoolean fShrinking = new AtomicBoolean();
+        private final TheoryMetrics fMetrics = new TheoryMetrics();
+        private final LatencyReport fLatencies;
+        private final ResourceAccounting fResources;
+        private final List<TheoryListener> fListeners;
+        private final Description fDescription;
+        private volatile TheoryProgress fProgress;
+        private DryRun fDryRun;
+        private volatile TraceRecorder fTrace;
 
         public TheoryAnchor(FrameworkMethod method, TestClass testClass) {
+            this(method, testClass, ReproductionToken.fromSystemProperty());
+        }
+
+        /**
+         * @param reproduction the token naming the single assignment to run, as parsed once by the runner, or
+         * {@code null} to run them all
+         */
+        protected TheoryAnchor(FrameworkMethod method, TestClass testClass, ReproductionToken reproduction) {
             fTestMethod = method;
             fTestClass = testClass;
+            fTheory = method.getAnnotation(Theory.class);
+
+            fFailures = fTheory != null && fTheory.collectAllFailures()
+                    ? new FailureCollector(testClass.getJavaClass(), method.getName())
+                    : null;
+            fReuseInstances = testClass.getJavaClass().isAnnotationPresent(ReusableTestInstance.class);
+            fPrefixFixtures = new PrefixFixtures(testClass, method.getMethod());
+            fReproduction = fTheory != null ? reproduction : null;
+            fShard = fTheory != null && fReproduction == null ? Shard.fromSystemProperties() : Shard.all();
+            fLatencies = fTheory != null ? LatencyReport.open() : null;
+            fResources = fTheory != null ? ResourceAccounting.open() : null;
+            fListeners = fTheory != null ? TheoryListeners.current() : Collections.<TheoryListener>emptyList();
+            fDescription = Description.createTestDescription(
+                    testClass.getJavaClass(), method.getName(), method.getAnnotations());
         }
 
         private TestClass getTestClass() {
             return fTestClass;
         }
 
+        /**
+         * @return what has happened so far while running this theory
+         */
+        public TheoryMetrics getMetrics() {
+            return fMetrics;
+        }
+
         @Override public void evaluate() throws Throwable {
-            runWithAssignment(Assignments.allUnassigned(fTestMethod.getMethod(), getTestClass()));
+            for (TheoryListener each : fListeners) {
+                each.theoryStarted(fDescription);
+            }
+            TheoryEvents.TheorySpan span = fTheory != null
+                    ? TheoryEvents.get().theoryStarted(getTestClass().getJavaClass(), fTestMethod.getName())
+                    : null;
+            TheoryMonitor.RunningTheory monitored = fTheory != null ? monitored() : null;
+            if (monitored != null) {
+                TheoryMonitor.get().started(monitored);
+            }
+            try {
+                evaluateTheory();
+            } finally {
+                if (fProgress != null) {
+                    fProgress.stop();
+                }
+                if (monitored != null) {
+                    TheoryMonitor.get().finished(monitored);
+                }
+                fMetrics.finished();
+                if (span != null) {
+                    span.end(fMetrics);
+                }
+                if (fLatencies != null) {
+                    fLatencies.save(getTestClass().getName() + "#" + fTestMethod.getName());
+                }
+                if (fResources != null) {
+                    fResources.save(getTestClass().getName() + "#" + fTestMethod.getName());
+                }
+                for (TheoryListener each : fListeners) {
+                    each.theoryFinished(fDescription, fMetrics);
+                }
+            }
+        }
+
+        private void evaluateTheory() throws Throwable {
+            if (fTheory != null && DryRun.isEnabled()) {
+                dryRun();
+                return;
+            }
+            try {
+                if (fTheory != null && fTheory.forks() > 0 && fReproduction == null) {
+                    // the workers each work out the delta for themselves
+                    openIncrementalRecord(Assignments.allUnassigned(fTestMethod.getMethod(), getTestClass()));
+                    runForked(fTheory.forks());
+                } else {
+                    runAssignments();
+                }
+            } catch (Throwable e) {
+                if (fFailures == null || e instanceof AssumptionViolatedException) {
+                    throw e;
+                }
+                // a theory cut short, as by its timeout, still reports the failures collected before
+                fFailures.add(e);
+            } finally {
+                if (fFailures != null) {
+                    fFailures.assertEmpty();
+                }
+            }
+            if (fStopped) {
+                throw new AssumptionViolatedException(String.format("stopped after %d assignments",
+                        fMetrics.getExecuted()));
+            }
 
-            // if this test method is not annotated with Theory, then no successes is a valid case
-            boolean hasTheoryAnnotation = fTestMethod.getAnnotation(Theory.class) != null;
-            if (successes == 0 && hasTheoryAnnotation) {
+            // if this test method is not annotated with Theory, then no successes is a valid case; nor can one
+            // shard, or a run of only the assignments with added values, tell whether others found any
+            boolean hasTheoryAnnotation = fTheory != null;
+            if (successes.get() == 0 && hasTheoryAnnotation && fShard.isAll() && fDelta == null) {
                 Assert.fail("Never found parameters that satisfied method assumptions.  Violated assumptions: "
-                        + fInvalidParameters);
+                        + fInvalidParameters
+                        + (fResumedAssumptionViolations > 0
+                                ? " and " + fResumedAssumptionViolations + " before resuming"
+                                : ""));
+            }
+
+            if (fIncrementalRecord != null && fShard.isAll()) {
+                fIncrementalRecord.save(fRecordedCombinations);
+            }
+        }
+
+        private TheoryMonitor.RunningTheory monitored() {
+            final String name = getTestClass().getName() + "#" + fTestMethod.getName();
+            return new TheoryMonitor.RunningTheory() {
+                @Override public String getName() {
+                    return name;
+                }
+
+                @Override public long getCombinationIndex() {
+                    return fOrdinal;
+                }
+
+                @Override public long getCombinationCount() {
+                    Combinations counted = fCounted;
+                    return counted == null ? -1 : counted.size();
+                }
+
+                @Override public TheoryMetrics getMetrics() {
+                    return fMetrics;
+                }
+
+                @Override public void resize(int maxConcurrentAssignments) {
+                    AssignmentExecutor executor = fExecutor;
+                    if (executor != null) {
+                        executor.resize(maxConcurrentAssignments);
+                    }
+                    CompletionWindow completions = fCompletions;
+                    if (completions != null) {
+                        completions.resize(maxConcurrentAssignments);
+                    }
+                }
+
+                @Override public void stop() {
+                    fStopped = true;
+                }
+            };
+        }
+
+        /**
+         * Restricts the assignments this anchor runs to those whose position among the assignments of its
+         * {@link Shard shard}, modulo the given count, is the given index.
+         */
+        protected void restrictToSlice(int index, int count) {
+            fSliceIndex = index;
+            fSliceCount = count;
+        }
+
+        /**
+         * Runs the theory's assignments, reporting their outcomes to {@link #handleDataPointSuccess()},
+         * {@link #handleAssumptionViolation(AssumptionViolatedException)} and
+         * {@link #reportParameterizedError(Throwable, Object...)}.
+         */
+        protected void runAssignments() throws Throwable {
+            long timeout = fTheory == null ? 0 : fTheory.timeout();
+            if (timeout > 0) {
+                fTheoryWatch = Watchdog.watch(timeout);
+            }
+            int maxConcurrentAssignments = fTheory == null
+                    ? 1
+                    : TheoryMonitor.get().maxConcurrentAssignments(fTheory.maxConcurrentAssignments());
+            if (isAsynchronous(fTestMethod)) {
+                fExecutor = AssignmentExecutor.sequential();
+                fCompletions = new CompletionWindow(maxConcurrentAssignments);
+            } else {
+                fExecutor = AssignmentExecutor.onVirtualThreads(maxConcurrentAssignments);
+            }
+            try {
+                fTrace = fTheory != null ? TraceRecorder.open(theoryIdentity()) : null;
+                Assignments unassigned = Assignments.allUnassigned(fTestMethod.getMethod(), getTestClass());
+                if (fTheory != null && !fListeners.isEmpty()) {
+                    counted(unassigned);
+                }
+                if (!fShard.isAll()) {
+                    fCombinations = counted(unassigned);
+                }
+                if (fReproduction != null) {
+                    fCombinations = counted(unassigned);
+                    fReplaying = new TreeSet<>(Collections.singleton(fReproduction.locate(fCombinations)));
+                } else if (fTheory != null) {
+                    resumeFromCheckpoint(unassigned);
+                    openIncrementalRecord(unassigned);
+                    replayKnownFailures(unassigned);
+                }
+                if (fTheory != null) {
+                    startProgress(unassigned);
+                }
+                runSelectedAssignments(unassigned);
+                awaitAssignments();
+            } finally {
+                fExecutor.close();
+                if (fTrace != null) {
+                    fTrace.close();
+                }
+                if (fCheckpoint != null && fStopped) {
+                    fCheckpoint.save();
+                } else if (fCheckpoint != null) {
+                    fCheckpoint.discard();
+                }
+                if (fFailureDatabase != null) {
+                    fFailureDatabase.save();
+                }
+                if (fCompletions != null) {
+                    fCompletions.drain();
+                }
+                if (fTheoryWatch != null && fTheoryWatch.stop()) {
+                    throw new TestTimedOutException(timeout, MILLISECONDS);
+                }
+            }
+        }
+
+        private void dryRun() throws Throwable {
+            Assignments unassigned = Assignments.allUnassigned(fTestMethod.getMethod(), getTestClass());
+            fCombinations = counted(unassigned);
+            startProgress(unassigned);
+
+            List<String> parameters = new ArrayList<>();
+            for (ParameterSignature each : signatures(getTestClass().getOnlyConstructor())) {
+                parameters.add(each.getName());
+            }
+            for (ParameterSignature each : signatures(fTestMethod.getMethod())) {
+                parameters.add(each.getName());
+            }
+
+            try (DryRun dryRun = DryRun.open(getTestClass().getName() + "#" + fTestMethod.getName(), parameters,
+                    fCombinations)) {
+                fDryRun = dryRun;
+                runWithFixedAssignment(unassigned);
+            }
+            throw new AssumptionViolatedException(String.format("dry run: wrote %d combinations to %s",
+                    fDryRun.getWritten(), fDryRun.getFile()));
+        }
+
+        /**
+         * @return the theory's combinations, counted the first time they are asked for, which asks each supplier
+         * for its values once more than enumerating the assignments does
+         */
+        private synchronized Combinations counted(Assignments unassigned) throws Throwable {
+            if (fCounted == null) {
+                fCounted = combinationsOf(unassigned);
+                for (TheoryListener each : fListeners) {
+                    each.combinationsCounted(fDescription, fCounted.size());
+                }
+            }
+            return fCounted;
+        }
+
+        /**
+         * Starts reporting progress through the combinations in the order they are enumerated, once failures have
+         * been replayed: the replay goes through them once already, and its rate says nothing of the rest. The
+         * assignments finished before resuming count as done from the start.
+         */
+        private void startProgress(Assignments unassigned) throws Throwable {
+            if (!TheoryProgress.isEnabled()) {
+                return;
+            }
+            fProgress = TheoryProgress.start(getTestClass().getName() + "#" + fTestMethod.getName(),
+                    counted(unassigned).size(), () -> Math.max(fOrdinal, fResumeFrom), (done, total, etaMillis) -> {
+                        for (TheoryListener each : fListeners) {
+                            each.theoryProgressed(fDescription, done, total, etaMillis);
+                        }
+                    });
+        }
+
+        private void resumeFromCheckpoint(Assignments unassigned) throws Throwable {
+            if (!Checkpoint.isEnabled()) {
+                return;
+            }
+            fCheckpoint = Checkpoint.open(theoryIdentity(), counted(unassigned), successes::get,
+                    () -> fInvalidParameters.size() + fResumedAssumptionViolations);
+            if (fCheckpoint == null) {
+                return;
+            }
+
+            fCombinations = fCounted;
+            fResumeFrom = fCheckpoint.resumeFrom();
+            successes.addAndGet(fCheckpoint.resumedSuccesses());
+            fResumedAssumptionViolations = fCheckpoint.resumedAssumptionViolations();
+        }
+
+        private void openIncrementalRecord(Assignments unassigned) throws Throwable {
+            Set<String> dataPointMethods = new HashSet<>();
+            for (FrameworkMethod each : getTestClass().getAnnotatedMethods(DataPoint.class)) {
+                dataPointMethods.add(each.getName());
+            }
+            for (FrameworkMethod each : getTestClass().getAnnotatedMethods(DataPoints.class)) {
+                dataPointMethods.add(each.getName());
+            }
+
+            fIncrementalRecord = IncrementalRecord.open(
+                    getTestClass().getName() + "#" + fTestMethod.getName(), getTestClass().getJavaClass(),
+                    dataPointMethods);
+            if (fIncrementalRecord == null) {
+                return;
+            }
+
+            fRecordedCombinations = counted(unassigned);
+            fDelta = fIncrementalRecord.deltaOf(fRecordedCombinations);
+            if (fDelta != null) {
+                fCombinations = fRecordedCombinations;
+            }
+        }
+
+        private void replayKnownFailures(Assignments unassigned) throws Throwable {
+            fFailureDatabase = FailureDatabase.open(getTestClass().getName() + "#" + fTestMethod.getName());
+            if (fFailureDatabase == null || fFailureDatabase.isEmpty()) {
+                return;
+            }
+
+            fCombinations = counted(unassigned);
+            fReplaying = fFailureDatabase.locate(fCombinations);
+            try {
+                runWithAssignment(unassigned);
+                awaitAssignments();
+            } finally {
+                fReplayed = fReplaying;
+                fReplaying = null;
+                fOrdinal = 0;
+            }
+        }
+
+        private String theoryIdentity() {
+            StringBuilder identity = new StringBuilder(getTestClass().getName()).append('#').append(fTestMethod.getName());
+            if (!fShard.isAll()) {
+                identity.append(" shard ").append(fShard);
+            }
+            if (fSliceCount > 1) {
+                identity.append(" slice ").append(fSliceIndex + 1).append('/').append(fSliceCount);
+            }
+            return identity.toString();
+        }
+
+        private long totalCombinations() {
+            return fCombinations == null ? 1 : fCombinations.size();
+        }
+
+        private void runForked(int workers) throws Throwable {
+            new ForkedTheory(getTestClass().getJavaClass(), fTestMethod.getName(), workers, new ForkedTheory.Outcomes() {
+                @Override public void succeeded() {
+                    fMetrics.executed();
+                    handleDataPointSuccess();
+                }
+
+                @Override public void violatedAssumption(AssumptionViolatedException e) {
+                    fMetrics.executed();
+                    handleAssumptionViolation(e);
+                }
+
+                @Override public void failed(Throwable e) throws Throwable {
+                    fMetrics.executed();
+                    fMetrics.failed();
+                    reportParameterizedError(e);
+                }
+            }).run();
+        }
+
+        /**
+         * Runs the assignments of a shard holding every <em>n</em>th one by number, going straight from each to the
+         * next, unless prefix fixtures need the prefixes entered in order or failures are being reproduced; otherwise
+         * walks the tree of assignments, skipping the subtrees holding none to run.
+         */
+        private void runSelectedAssignments(Assignments unassigned) throws Throwable {
+            if (!fShard.isStrided() || fReplaying != null || !fPrefixFixtures.isEmpty()) {
+                runWithAssignment(unassigned);
+                return;
+            }
+
+            long total = fCombinations.size();
+            long finished = 0;
+            for (long ordinal = fShard.firstFrom(fResumeFrom); ordinal < total && !isCutShort();
+                    ordinal += fShard.getCount()) {
+                if (fCheckpoint != null) {
+                    fCheckpoint.finished(finished, ordinal);
+                }
+                fOrdinal = ordinal;
+                runWithFixedAssignment(fCombinations.get(ordinal));
+                finished = ordinal + 1;
+            }
+            if (!isCutShort()) {
+                if (fCheckpoint != null) {
+                    fCheckpoint.finished(finished, total);
+                }
+                fOrdinal = total;
             }
         }
 
+        private boolean isCutShort() {
+            return fStopped || fTheoryWatch != null && fTheoryWatch.isExpired();
+        }
+
         protected void runWithAssignment(Assignments parameterAssignment) throws Throwable {
+            if (isCutShort()) {
+                return;
+            }
+
+            if (!fPrefixFixtures.isEmpty() && parameterAssignment.getAssignedCount() > 0 && fDryRun == null) {
+                runWithPrefixFixtures(parameterAssignment);
+            } else {
+                runWithFixedAssignment(parameterAssignment);
+            }
+        }
+
+        private void runWithFixedAssignment(Assignments parameterAssignment) throws Throwable {
             if (!parameterAssignment.isComplete()) {
                 runWithIncompleteAssignment(parameterAssignment);
             } else {
-                runWithCompleteAssignment(parameterAssignment);
+                fMetrics.generated();
+                long ordinal = fOrdinal++;
+                boolean selected = isSelected(ordinal, parameterAssignment);
+                if (selected && fDryRun != null) {
+                    fDryRun.write(parameterAssignment);
+                } else if (selected) {
+                    fExecutor.execute(() -> runWithCompleteAssignment(parameterAssignment.numbered(ordinal)));
+                } else if (fCheckpoint != null && fReplaying == null) {
+                    fCheckpoint.finished(ordinal, ordinal + 1);
+                }
+            }
+        }
+
+        private boolean isSelected(long ordinal, Assignments complete) {
+            if (!fShard.selects(ordinal, totalCombinations())
+                    || fShard.rank(ordinal, totalCombinations()) % fSliceCount != fSliceIndex) {
+                return false;
+            }
+            if (fReplaying != null) {
+                return fReplaying.contains(ordinal);
+            }
+            return ordinal >= fResumeFrom
+                    && !fReplayed.contains(ordinal)
+                    && (fDelta == null || fDelta.includesAdded(complete.getAssigned(), complete.getAssignedCount()));
+        }
+
+        private boolean selectsAnyOf(long start, long end, Assignments prefix) {
+            if (!fShard.selectsAnyOf(start, end, totalCombinations())) {
+                return false;
+            }
+            if (fReplaying != null) {
+                Long next = fReplaying.ceiling(start);
+                return next != null && next < end;
+            }
+            return end > fResumeFrom
+                    && (fDelta == null || fDelta.includesAdded(prefix.getAssigned(), prefix.getAssignedCount()));
+        }
+
+        private void awaitAssignments() throws Throwable {
+            fExecutor.await();
+            if (fCompletions != null) {
+                fCompletions.await();
+            }
+        }
+
+        private void runWithPrefixFixtures(Assignments prefix) throws Throwable {
+            List<FrameworkMethod> befores = fPrefixFixtures.befores(prefix.getAssignedCount());
+            List<FrameworkMethod> afters = fPrefixFixtures.afters(prefix.getAssignedCount());
+            if (befores.isEmpty() && afters.isEmpty()) {
+                runWithFixedAssignment(prefix);
+                return;
+            }
+
+            Object[] values = prefix.getActualValues(0, prefix.getAssignedCount());
+            Throwable failure = null;
+            try {
+                if (enterPrefix(prefix, befores, values)) {
+                    runWithFixedAssignment(prefix);
+                    awaitAssignments();
+                }
+            } catch (Throwable e) {
+                failure = e;
+            }
+
+            try {
+                leavePrefix(prefix, afters, values);
+            } catch (Throwable e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private boolean enterPrefix(Assignments prefix, List<FrameworkMethod> befores, Object[] values)
+                throws Throwable {
+
+            try {
+                for (FrameworkMethod each : befores) {
+                    runFixture(each, values);
+                }
+                return true;
+            } catch (AssumptionViolatedException e) {
+                handleAssumptionViolation(e);
+            } catch (Throwable e) {
+                reportParameterizedError(e, prefix.getArgumentStrings());
+            }
+            return false;
+        }
+
+        private void leavePrefix(Assignments prefix, List<FrameworkMethod> afters, Object[] values)
+                throws Throwable {
+
+            List<Throwable> errors = new ArrayList<>();
+            for (FrameworkMethod each : afters) {
+                try {
+                    runFixture(each, values);
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }
+
+            if (!errors.isEmpty()) {
+                reportParameterizedError(
+                        errors.size() == 1 ? errors.get(0) : new MultipleFailureException(errors),
+                        prefix.getArgumentStrings());
+            }
+        }
+
+        private void runFixture(FrameworkMethod fixture, Object[] values) throws Throwable {
+            long start = System.nanoTime();
+            try {
+                fixture.invokeExplosively(null, values);
+            } finally {
+                fMetrics.ranFixturesFor(System.nanoTime() - start);
             }
         }
 
         protected void runWithIncompleteAssignment(Assignments incomplete) throws Throwable {
-            for (PotentialAssignment each : incomplete.potentialsForNextUnassigned()) {
-                runWithAssignment(incomplete.assignNext(each));
+            if (fCombinations == null) {
+                for (PotentialAssignment each : potentialsForNextUnassigned(incomplete)) {
+                    runWithAssignment(incomplete.assignNext(each));
+                }
+                return;
+            }
+
+            // skip whole subtrees outside the shard, finished before resuming, holding no failure being replayed,
+            // or holding no value added since the theory last held, keeping the numbering of the rest
+            int depth = incomplete.getAssignedCount();
+            long below = fCombinations.sizeFrom(depth + 1);
+            for (PotentialAssignment each : fCombinations.potentialsAt(depth)) {
+                long start = fOrdinal;
+                long end = start + below;
+                Assignments prefix = incomplete.assignNext(each);
+                if (selectsAnyOf(start, end, prefix)) {
+                    runWithAssignment(prefix);
+                } else if (fCheckpoint != null && fReplaying == null) {
+                    fCheckpoint.finished(start, end);
+                }
+                fOrdinal = end;
             }
         }
 
+        private List<PotentialAssignment> potentialsForNextUnassigned(Assignments incomplete) throws Throwable {
+            long start = System.nanoTime();
+            List<PotentialAssignment> potentials = null;
+            try {
+                potentials = incomplete.potentialsForNextUnassigned();
+                return potentials;
+            } finally {
+                long end = System.nanoTime();
+                fMetrics.suppliedFor(end - start);
+                if (fTrace != null) {
+                    fTrace.supplier(incomplete.getAssignedCount(), potentials != null ? potentials.size() : -1,
+                            start, end);
+                }
+            }
+        }
+
+        private Combinations combinationsOf(Assignments unassigned) throws Throwable {
+            return unassigned.combinations(this::potentialsForNextUnassigned);
+        }
+
+        /**
+         * Runs the given assignment, {@linkplain Assignments#getOrdinal() numbered} among the theory's combinations.
+         */
         protected void runWithCompleteAssignment(final Assignments complete) throws Throwable {
-            new BlockJUnit4ClassRunner(getTestClass().getJavaClass()) {
+            final long ordinal = complete.getOrdinal();
+            fMetrics.executed();
+            final AtomicReference<CompletionStage<?>> pending = new AtomicReference<>();
+            final AtomicBoolean evaluated = new AtomicBoolean();
+            final AtomicBoolean finishesLater = new AtomicBoolean();
+
+            try {
+                runCompleteAssignment(complete, ordinal, pending, evaluated, finishesLater);
+            } finally {
+                // an assignment turned away, as when reserving its place rethrows an earlier one's failure, is not
+                // finished, and is left for the next run to pick up
+                if (evaluated.get() && !finishesLater.get()) {
+                    assignmentFinished(ordinal);
+                }
+            }
+        }
+
+        private void runCompleteAssignment(final Assignments complete, final long ordinal,
+                final AtomicReference<CompletionStage<?>> pending, final AtomicBoolean evaluated,
+                final AtomicBoolean finishesLater) throws Throwable {
+
+            Statement statement = assignmentBlock(complete, pending, true);
+            if (fCompletions != null) {
+                fCompletions.reserve();
+            }
+            evaluated.set(true);
+            try {
+                evaluateMeasured(statement, complete, ordinal);
+            } catch (AssumptionViolatedException e) {
+                releaseReservation();
+                handleAssumptionViolation(e);
+                return;
+            } catch (Throwable e) {
+                releaseReservation();
+                if (fTheoryWatch != null && fTheoryWatch.isExpired()) {
+                    return;
+                }
+                reportAssignmentFailure(e, complete);
+                return;
+            }
+
+            if (pending.get() == null) {
+                releaseReservation();
+                handleDataPointSuccess();
+            } else {
+                finishesLater.set(true);
+                fCompletions.releaseWhen(pending.get(), failure -> handleCompletion(failure, complete, ordinal));
+            }
+        }
+
+        private void evaluateMeasured(Statement statement, Assignments complete, long ordinal) throws Throwable {
+            TheoryEvents.AssignmentSpan span =
+                    TheoryEvents.get().assignmentStarted(getTestClass().getJavaClass(), fTestMethod.getName());
+            long start = fLatencies != null || fTrace != null ? System.nanoTime() : 0;
+            long startBytes = fResources != null ? fResources.allocatedBytes() : -1;
+            long startCpuNanos = fResources != null ? fResources.cpuNanos() : -1;
+            String outcome = "failed";
+            byte traced = TraceRecorder.FAILED;
+            try {
+                statement.evaluate();
+                outcome = fCompletions != null ? "returned" : "succeeded";
+                traced = fCompletions != null ? TraceRecorder.RETURNED : TraceRecorder.SUCCEEDED;
+            } catch (AssumptionViolatedException e) {
+                outcome = "violated assumption";
+                traced = TraceRecorder.VIOLATED_ASSUMPTION;
+                throw e;
+            } finally {
+                if (fTrace != null) {
+                    fTrace.assignment(ordinal, start, System.nanoTime(), traced);
+                }
+                if (fLatencies != null) {
+                    fLatencies.record(System.nanoTime() - start, complete);
+                }
+                if (fResources != null) {
+                    fResources.record(complete, startBytes, startCpuNanos);
+                }
+                span.end(complete, outcome);
+            }
+        }
+
+        private Statement assignmentBlock(final Assignments complete, final AtomicReference<CompletionStage<?>> pending,
+                final boolean mayReuseInstance) throws InitializationError {
+
+            return new BlockJUnit4ClassRunner(getTestClass().getJavaClass()) {
                 @Override protected void collectInitializationErrors(List<Throwable> errors) {
                     // do nothing
                 }
 
                 @Override public Statement methodBlock(FrameworkMethod method) {
-                    final Statement statement = super.methodBlock(method);
-                    return new Statement() {
-                        @Override
-                        public void evaluate() throws Throwable {
-                            try {
-                                statement.evaluate();
-                                handleDataPointSuccess();
-                            } catch (AssumptionViolatedException e) {
-                                handleAssumptionViolation(e);
-                            } catch (Throwable e) {
-                                reportParameterizedError(e, complete.getArgumentStrings());
-                            }
-                        }
-                    };
+                    return withAssignmentTimeout(super.methodBlock(method));
+                }
+
+                @Override protected Statement withBefores(FrameworkMethod method, Object target, Statement statement) {
+                    List<FrameworkMethod> befores = timed(getTestClass().getAnnotatedMethods(Before.class));
+                    return befores.isEmpty() ? statement : new RunBefores(statement, befores, target);
+                }
+
+                @Override protected Statement withAfters(FrameworkMethod method, Object target, Statement statement) {
+                    List<FrameworkMethod> afters = timed(getTestClass().getAnnotatedMethods(After.class));
+                    return afters.isEmpty() ? statement : new RunAfters(statement, afters, target);
                 }
 
                 @Override protected Statement methodInvoker(FrameworkMethod method, Object test) {
-                    return methodCompletesWithParameters(method, complete, test);
+                    return methodCompletesWithParameters(method, complete, test, pending);
                 }
 
                 @Override public Object createTest() throws Exception {
-                    Object[] params = complete.getConstructorArguments();
+                    return mayReuseInstance ? createTestInstance(complete) : newTestInstance(complete);
+                }
+            }.methodBlock(fTestMethod);
+        }
 
-                    if (!nullsOk()) {
-                        Assume.assumeNotNull(params);
+        /**
+         * @return how the given assignment failed, or {@code null} if it did not; it is run apart from the others,
+         * on a new test instance, and its outcome is not reported
+         */
+        private Throwable tryAssignment(Assignments complete) {
+            AtomicReference<CompletionStage<?>> pending = new AtomicReference<>();
+            try {
+                assignmentBlock(complete, pending, false).evaluate();
+                if (pending.get() != null) {
+                    pending.get().toCompletableFuture().join();
+                }
+                return null;
+            } catch (CompletionException e) {
+                return e.getCause();
+            } catch (Throwable e) {
+                return e;
+            }
+        }
+
+        private List<FrameworkMethod> timed(List<FrameworkMethod> fixtures) {
+            List<FrameworkMethod> timed = new ArrayList<>();
+            for (FrameworkMethod each : fixtures) {
+                timed.add(new FrameworkMethod(each.getMethod()) {
+                    @Override public Object invokeExplosively(Object target, Object... params) throws Throwable {
+                        long start = System.nanoTime();
+                        try {
+                            return super.invokeExplosively(target, params);
+                        } finally {
+                            fMetrics.ranFixturesFor(System.nanoTime() - start);
+                        }
                     }
+                });
+            }
+            return timed;
+        }
 
-                    return getTestClass().getOnlyConstructor().newInstance(params);
+        private void reportAssignmentFailure(Throwable failure, Assignments complete) throws Throwable {
+            fMetrics.failed();
+            assignmentFailed(complete);
+
+            if (fTheory != null && fTheory.shrinkFailures() && fReproduction == null
+                    && fShrinking.compareAndSet(false, true)) {
+
+                List<ParameterSignature> signatures = signatures(getTestClass().getOnlyConstructor());
+                signatures.addAll(signatures(fTestMethod.getMethod()));
+                Combinations combinations = counted(unassigned());
+
+                AssignmentShrinker shrinker = new AssignmentShrinker(
+                        combinations, signatures, fPrefixFixtures.longestPrefix(), this::tryAssignment);
+                Assignments smallest = shrinker.shrink(complete, failure);
+                if (smallest != complete) {
+                    Object[] arguments = smallest.getArgumentStrings();
+                    ParameterizedAssertionError shrunk = new ParameterizedAssertionError(
+                            shrinker.getFailure(), fTestMethod.getName(), reproductionOf(arguments, combinations),
+                            arguments);
+                    shrunk.addSuppressed(new AssertionError("shrunk from " + new ParameterizedAssertionError(
+                            failure, fTestMethod.getName(), complete.getArgumentStrings()).getMessage(), failure));
+                    reportParameterizedError(shrunk);
+                    return;
                 }
-            }.methodBlock(fTestMethod).evaluate();
+            }
+
+            Object[] arguments = complete.getArgumentStrings();
+            reportParameterizedError(new ParameterizedAssertionError(
+                    failure, fTestMethod.getName(), reproductionOf(arguments, counted(unassigned())), arguments));
+        }
+
+        /**
+         * @return the token naming the assignment with the given arguments, or {@code null} if some of them were
+         * made up while shrinking, and do not come from the given combinations
+         */
+        private ReproductionToken reproductionOf(Object[] arguments, Combinations combinations) {
+            try {
+                return ReproductionToken.of(getTestClass().getName() + "#" + fTestMethod.getName(), arguments,
+                        combinations);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private Assignments unassigned() throws Exception {
+            return Assignments.allUnassigned(fTestMethod.getMethod(), getTestClass());
+        }
+
+        private void releaseReservation() {
+            if (fCompletions != null) {
+                fCompletions.release();
+            }
+        }
+
+        private void handleCompletion(Throwable failure, Assignments complete, long ordinal) throws Throwable {
+            try {
+                if (failure == null) {
+                    handleDataPointSuccess();
+                } else if (failure instanceof AssumptionViolatedException) {
+                    handleAssumptionViolation((AssumptionViolatedException) failure);
+                } else {
+                    reportAssignmentFailure(failure, complete);
+                }
+            } finally {
+                assignmentFinished(ordinal);
+            }
+        }
+
+        private void assignmentFailed(Assignments complete) throws Throwable {
+            if (fFailureDatabase != null) {
+                fFailureDatabase.failed(complete);
+            }
+        }
+
+        private void assignmentFinished(long ordinal) throws IOException {
+            if (fCheckpoint != null) {
+                fCheckpoint.finished(ordinal, ordinal + 1);
+            }
+            if (fFailureDatabase != null && (fTheoryWatch == null || !fTheoryWatch.isExpired())) {
+                fFailureDatabase.finished(ordinal);
+            }
+        }
+
+        private Statement withAssignmentTimeout(Statement statement) {
+            return fTheory != null && fTheory.assignmentTimeout() > 0
+                    ? new FailOnWatchdogTimeout(statement, fTheory.assignmentTimeout())
+                    : statement;
+        }
+
+        private synchronized Object createTestInstance(Assignments complete) throws Exception {
+            if (!fReuseInstances) {
+                return newTestInstance(complete);
+            }
+
+            List<PotentialAssignment> key = complete.getConstructorAssignments();
+            if (fReusableInstance == null || !sameAssignments(key, fReusableInstanceKey)) {
+                fReusableInstance = newTestInstance(complete);
+                fReusableInstanceKey = key;
+            }
+            return fReusableInstance;
+        }
+
+        private Object newTestInstance(Assignments complete) throws Exception {
+            long start = System.nanoTime();
+            Object[] params = complete.getConstructorArguments();
+            long supplied = System.nanoTime();
+            fMetrics.suppliedFor(supplied - start);
+
+            if (!nullsOk()) {
+                Assume.assumeNotNull(params);
+            }
+
+            try {
+                return getTestClass().getOnlyConstructor().newInstance(params);
+            } finally {
+                fMetrics.constructedFor(System.nanoTime() - supplied);
+            }
+        }
+
+        private static boolean sameAssignments(List<PotentialAssignment> first, List<PotentialAssignment> second) {
+            if (first.size() != second.size()) {
+                return false;
+            }
+            for (int i = 0; i < first.size(); i++) {
+                if (first.get(i) != second.get(i)) {
+                    return false;
+                }
+            }
+            return true;
         }
 
         private Statement methodCompletesWithParameters(final FrameworkMethod method, final Assignments complete,
-                final Object freshInstance) {
+                final Object freshInstance, final AtomicReference<CompletionStage<?>> pending) {
             return new Statement() {
                 @Override
                 public void evaluate() throws Throwable {
+                    long start = System.nanoTime();
                     Object[] values = complete.getMethodArguments();
+                    long supplied = System.nanoTime();
+                    fMetrics.suppliedFor(supplied - start);
 
                     if (!nullsOk()) {
                         Assume.assumeNotNull(values);
                     }
 
-                    method.invokeExplosively(freshInstance, values);
+                    Object result;
+                    try {
+                        result = method.invokeExplosively(freshInstance, values);
+                    } finally {
+                        fMetrics.ranBodyFor(System.nanoTime() - supplied);
+                    }
+                    if (fCompletions != null) {
+                        if (result == null) {
+                            throw new NullPointerException(method.getName() + " returned null instead of a "
+                                    + CompletionStage.class.getSimpleName());
+                        }
+                        pending.set((CompletionStage<?>) result);
+                    }
                 }
             };
         }
 
         protected void handleAssumptionViolation(AssumptionViolatedException e) {
+            fMetrics.violatedAssumption();
             fInvalidParameters.add(e);
         }
 
         protected void reportParameterizedError(Throwable e, Object... params) throws Throwable {
+            if (fFailures != null) {
+                fFailures.add(e, params);
+                return;
+            }
             if (params.length == 0) {
                 throw e;
             }
             throw new ParameterizedAssertionError(e, fTestMethod.getName(), params);
         }
 
+        private static boolean isAsynchronous(FrameworkMethod method) {
+            return CompletionStage.class.isAssignableFrom(method.getReturnType());
+        }
+
         private boolean nullsOk() {
-            Theory annotation = fTestMethod.getMethod().getAnnotation(Theory.class);
-            return annotation != null && annotation.nullsAccepted();
+            return fTheory != null && fTheory.nullsAccepted();
         }
 
         protected void handleDataPointSuccess() {
-            successes++;
+            fMetrics.succeeded();
+            successes.incrementAndGet();
         }
     }
 }
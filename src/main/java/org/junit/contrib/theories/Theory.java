@@ -10,4 +10,79 @@ import static java.lang.annotation.RetentionPolicy.*;
 @Target(METHOD)
 public @interface Theory {
     boolean nullsAccepted() default true;
-}
\ No newline at end of file
+
+    /**
+     * <p>When {@code true}, keeps trying assignments after the first failing one, and reports every failing
+     * assignment together once the theory has been exhausted. Failures are grouped by exception type and the
+     * frame that raised them.</p>
+     *
+     * <p>At most {@value org.junit.contrib.theories.internal.FailureCollector#DEFAULT_RETAINED_FAILURES}
+     * failures (or the number given by the system property
+     * {@value org.junit.contrib.theories.internal.FailureCollector#RETAINED_FAILURES_PROPERTY}) are kept in
+     * memory; the rest are summarized, and written to a temporary file.</p>
+     */
+    boolean collectAllFailures() default false;
+
+    /**
+     * Fails the theory if running all of its assignments takes longer than the given number of milliseconds.
+     * Zero means no limit.
+     */
+    long timeout() default 0;
+
+    /**
+     * <p>Fails an assignment of the theory if it takes longer than the given number of milliseconds. Zero means
+     * no limit.</p>
+     *
+     * <p>Each assignment runs on the runner's own thread, which is interrupted when its time is up, so the theory
+     * must respond to interruption. This is much cheaper than a {@link org.junit.rules.Timeout} rule, which starts
+     * a new thread for every assignment.</p>
+     */
+    long assignmentTimeout() default 0;
+
+    /**
+     * <p>The number of the theory's assignments that may be run at once. Values greater than one run each
+     * assignment on its own virtual thread, which suits theories that spend most of their time blocked on I/O.
+     * Virtual threads need Java 21 or later, or Java 19 or 20 run with {@code --enable-preview}; on earlier versions,
+     * or when the system property {@code theories.virtualThreads} is {@code false}, assignments are run one after
+     * another.</p>
+     *
+     * <p>Theories may instead return a {@link java.util.concurrent.CompletionStage}, in which case an assignment
+     * is in flight from when the theory is invoked until the stage completes, and assignments are invoked from the
+     * runner's thread while fewer than this many are in flight. Exceptional completion fails the assignment, or
+     * skips it if an assumption was violated. {@link org.junit.Before} and {@link org.junit.After} methods, and
+     * {@link #assignmentTimeout()}, apply to the invocation only.</p>
+     *
+     * <p>Assignments that run concurrently may share a {@link ReusableTestInstance reused test instance}, which
+     * must then be thread-safe.</p>
+     */
+    int maxConcurrentAssignments() default 1;
+
+    /**
+     * <p>The number of worker JVMs to fork to run the theory's assignments. Zero, the default, runs them in this
+     * JVM.</p>
+     *
+     * <p>Workers are started with this JVM's Java executable and class path, and the system properties whose
+     * names begin with {@code theories.}. Each runs every <em>n</em>th assignment in order of enumeration, so
+     * data points must be supplied in the same order in every JVM, and fixtures run in every worker. Each worker
+     * runs its assignments one at a time, whatever {@link #maxConcurrentAssignments()} says, so that if it exits
+     * without finishing, the assignment it was running fails.</p>
+     */
+    int forks() default 0;
+
+    /**
+     * <p>When {@code true}, the first failing assignment is followed by a search for a smaller one that fails the
+     * same way, trying other data points from the same sources, and simpler values from each parameter's
+     * {@link Shrinker}. The smallest failing assignment found is reported, with the original as a suppressed
+     * exception.</p>
+     *
+     * <p>The search runs each candidate on a new test instance, and stops after
+     * {@value org.junit.contrib.theories.internal.AssignmentShrinker#DEFAULT_ATTEMPTS} attempts or
+     * {@value org.junit.contrib.theories.internal.AssignmentShrinker#DEFAULT_MILLIS} milliseconds, or the numbers
+     * given by the system properties
+     * {@value org.junit.contrib.theories.internal.AssignmentShrinker#ATTEMPTS_PROPERTY} and
+     * {@value org.junit.contrib.theories.internal.AssignmentShrinker#MILLIS_PROPERTY}.</p>
+     *
+     * @see ShrinksWith
+     */
+    boolean shrinkFailures() default false;
+}
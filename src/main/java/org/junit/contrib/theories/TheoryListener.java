@@ -0,0 +1,52 @@
+package org.junit.contrib.theories;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * <p>Hears when each {@link Theory} starts and finishes, with the theory's {@link TheoryMetrics}. A theory
+ * listener is also a {@link RunListener}, so the same object can be added to a
+ * {@link org.junit.runner.JUnitCore} or a build tool's test run to hear about tests as well.</p>
+ *
+ * <p>Listeners are registered with {@link Theories#addTheoryListener(TheoryListener)}, or named, comma-separated,
+ * in the system property {@value org.junit.contrib.theories.internal.TheoryListeners#LISTENERS_PROPERTY}, in
+ * which case each needs a public no-argument constructor, and is made once per JVM. They can be called from
+ * several threads at once when theories run concurrently.</p>
+ */
+public abstract class TheoryListener extends RunListener {
+    /**
+     * Called when a theory starts, before any of its assignments are run.
+     */
+    public void theoryStarted(Description theory) throws Exception {
+    }
+
+    /**
+     * Called once the runner has counted the combinations of values a theory's parameters can take, before it runs
+     * any of them. The count assumes each supplier gives a parameter the same values whatever the parameters before
+     * it were assigned, as those of this library do. Theories that are {@link Theory#forks() forked} are not counted.
+     *
+     * <p>Counting asks each supplier for its values once more, apart from the asking done for each prefix as the
+     * assignments are enumerated, and the assignments are still given the values supplied for their own prefix.
+     * Only when a shard, checkpoint, known failure, incremental run or reproduction token needs to go straight to
+     * an assignment by number are the assignments enumerated from the values supplied for the count instead, so
+     * that each supplier is asked just once, and data points are shared between prefixes.</p>
+     */
+    public void combinationsCounted(Description theory, long combinations) throws Exception {
+    }
+
+    /**
+     * Called every so often while a theory runs, when progress is being reported to listeners; see
+     * {@link org.junit.contrib.theories.internal.TheoryProgress}.
+     *
+     * @param done how many of the theory's combinations have been got through
+     * @param etaMillis the milliseconds left at the rate so far, or -1 if there is no rate yet
+     */
+    public void theoryProgressed(Description theory, long done, long combinations, long etaMillis) throws Exception {
+    }
+
+    /**
+     * Called when a theory finishes, whether or not it held, before its result is reported.
+     */
+    public void theoryFinished(Description theory, TheoryMetrics metrics) throws Exception {
+    }
+}
@@ -0,0 +1,146 @@
+package org.junit.contrib.theories;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * <p>Counts what happened while a {@link Theory} ran: how many complete assignments were generated, how many of
+ * those were executed, and how they turned out, and how long was spent supplying values, constructing test
+ * instances, running fixtures and running the theory itself. The counters are updated as the theory runs, and
+ * handed to each {@link TheoryListener} when it finishes.</p>
+ *
+ * <p>Times are summed over assignments, so with assignments running concurrently they can add up to more than the
+ * theory took. Time spent in rules, and in the {@link Theories} runner itself, is not counted. When a theory is
+ * {@link Theory#forks() forked}, the outcomes of assignments are counted, but not the time spent on them.</p>
+ */
+public final class TheoryMetrics {
+    private final LongAdder fGenerated = new LongAdder();
+    private final LongAdder fExecuted = new LongAdder();
+    private final LongAdder fSucceeded = new LongAdder();
+    private final LongAdder fAssumptionViolations = new LongAdder();
+    private final LongAdder fFailed = new LongAdder();
+    private final LongAdder fSupplierNanos = new LongAdder();
+    private final LongAdder fConstructionNanos = new LongAdder();
+    private final LongAdder fFixtureNanos = new LongAdder();
+    private final LongAdder fBodyNanos = new LongAdder();
+    private final long fStartNanos = System.nanoTime();
+    private volatile long fElapsedNanos = -1;
+
+    TheoryMetrics() {
+    }
+
+    /**
+     * @return the number of complete assignments the runner enumerated, including any it then skipped, for
+     * instance because they belong to another shard
+     */
+    public long getGenerated() {
+        return fGenerated.sum();
+    }
+
+    /**
+     * @return the number of complete assignments the theory was run with
+     */
+    public long getExecuted() {
+        return fExecuted.sum();
+    }
+
+    public long getSucceeded() {
+        return fSucceeded.sum();
+    }
+
+    public long getAssumptionViolations() {
+        return fAssumptionViolations.sum();
+    }
+
+    public long getFailed() {
+        return fFailed.sum();
+    }
+
+    /**
+     * @return the nanoseconds spent by parameter suppliers listing potential values, and by those values being
+     * generated
+     */
+    public long getSupplierNanos() {
+        return fSupplierNanos.sum();
+    }
+
+    /**
+     * @return the nanoseconds spent in the test class's constructor
+     */
+    public long getConstructionNanos() {
+        return fConstructionNanos.sum();
+    }
+
+    /**
+     * @return the nanoseconds spent in {@code @Before} and {@code @After} methods and prefix fixtures
+     */
+    public long getFixtureNanos() {
+        return fFixtureNanos.sum();
+    }
+
+    /**
+     * @return the nanoseconds spent in the theory method itself
+     */
+    public long getBodyNanos() {
+        return fBodyNanos.sum();
+    }
+
+    /**
+     * @return the nanoseconds from the theory starting until it finished, or until now if it has not
+     */
+    public long getElapsedNanos() {
+        long elapsed = fElapsedNanos;
+        return elapsed >= 0 ? elapsed : System.nanoTime() - fStartNanos;
+    }
+
+    void generated() {
+        fGenerated.increment();
+    }
+
+    void executed() {
+        fExecuted.increment();
+    }
+
+    void succeeded() {
+        fSucceeded.increment();
+    }
+
+    void violatedAssumption() {
+        fAssumptionViolations.increment();
+    }
+
+    void failed() {
+        fFailed.increment();
+    }
+
+    void suppliedFor(long nanos) {
+        fSupplierNanos.add(nanos);
+    }
+
+    void constructedFor(long nanos) {
+        fConstructionNanos.add(nanos);
+    }
+
+    void ranFixturesFor(long nanos) {
+        fFixtureNanos.add(nanos);
+    }
+
+    void ranBodyFor(long nanos) {
+        fBodyNanos.add(nanos);
+    }
+
+    void finished() {
+        fElapsedNanos = System.nanoTime() - fStartNanos;
+    }
+
+    @Override public String toString() {
+        return format("%d generated, %d executed, %d succeeded, %d violated assumptions, %d failed in %d ms"
+                        + " (suppliers %d ms, construction %d ms, fixtures %d ms, bodies %d ms)",
+                getGenerated(), getExecuted(), getSucceeded(), getAssumptionViolations(), getFailed(),
+                NANOSECONDS.toMillis(getElapsedNanos()), NANOSECONDS.toMillis(getSupplierNanos()),
+                NANOSECONDS.toMillis(getConstructionNanos()), NANOSECONDS.toMillis(getFixtureNanos()),
+                NANOSECONDS.toMillis(getBodyNanos()));
+    }
+}
@@ -21,14 +21,20 @@ import org.junit.runners.model.TestClass;
 public class AllMembersSupplier extends ParameterSupplier {
     static class MethodParameterValue extends PotentialAssignment {
         private final FrameworkMethod fMethod;
+        private final SupplierProfile fProfile;
 
-        private MethodParameterValue(FrameworkMethod dataPointMethod) {
+        private MethodParameterValue(FrameworkMethod dataPointMethod, SupplierProfile profile) {
             fMethod = dataPointMethod;
+            fProfile = profile;
         }
 
         @Override public Object getValue() throws CouldNotGenerateValueException {
+            long start = System.nanoTime();
+            boolean generated = false;
             try {
-                return fMethod.invokeExplosively(null);
+                Object value = fMethod.invokeExplosively(null);
+                generated = true;
+                return value;
             } catch (IllegalArgumentException e) {
                 throw new RuntimeException("unexpected: argument length is checked");
             } catch (IllegalAccessException e) {
@@ -38,6 +44,10 @@ public class AllMembersSupplier extends ParameterSupplier {
                 Assume.assumeTrue(annotation == null || !isAssignableToAnyOf(annotation.ignoredExceptions(), throwable));
 
                 throw new CouldNotGenerateValueException(throwable);
+            } finally {
+                if (fProfile != null) {
+                    fProfile.record("@DataPoint method " + fMethod.getName() + "()", start, generated ? 1 : 0);
+                }
             }
         }
 
@@ -47,9 +57,11 @@ public class AllMembersSupplier extends ParameterSupplier {
     }
 
     private final TestClass fClass;
+    private final SupplierProfile fProfile;
 
     public AllMembersSupplier(TestClass type) {
         fClass = type;
+        fProfile = SupplierProfile.of(type);
     }
 
     @Override public List<PotentialAssignment> getValueSources(ParameterSignature sig) throws Throwable {
@@ -69,8 +81,10 @@ public class AllMembersSupplier extends ParameterSupplier {
 
             if ((type.isArray() && sig.canPotentiallyAcceptType(type.getComponentClass())) ||
                     Types.forJavaLangReflectType(Iterable.class).isAssignableFrom(type)) {
+                long start = System.nanoTime();
+                int before = assignments.size();
                 try {
-                    addDataPointsValues(type, sig, each.getName(), assignments, each.invokeExplosively(null));
+                    addDataPointsValues(type, sig, each.getName(), assignments, invokeDataPointsMethod(each));
                 } catch (Throwable e) {
                     DataPoints annotation = each.getAnnotation(DataPoints.class);
                     if (annotation != null && isAssignableToAnyOf(annotation.ignoredExceptions(), e)) {
@@ -78,33 +92,47 @@ public class AllMembersSupplier extends ParameterSupplier {
                     } else {
                         throw e;
                     }
+                } finally {
+                    profile("@DataPoints method " + each.getName() + "()", start, assignments.size() - before);
                 }
             }
         }
     }
 
+    private Object invokeDataPointsMethod(FrameworkMethod method) throws Throwable {
+        return fClass instanceof DataPointsMemoizingTestClass
+                ? ((DataPointsMemoizingTestClass) fClass).invokeDataPointsMethod(method)
+                : method.invokeExplosively(null);
+    }
+
     private void addSinglePointMethods(ParameterSignature sig, List<PotentialAssignment> assignments) {
         for (FrameworkMethod each : getSingleDataPointMethods(sig)) {
             if (sig.canAcceptType(each.getMethod().getGenericReturnType())) {
-                assignments.add(new MethodParameterValue(each));
+                assignments.add(new MethodParameterValue(each, fProfile));
             }
         }
     }
 
     private void addMultiPointFields(ParameterSignature sig, List<PotentialAssignment> assignments) {
         for (Field each : getDataPointsFields(sig)) {
+            long start = System.nanoTime();
+            int before = assignments.size();
             addDataPointsValues(Types.forJavaLangReflectType(each.getGenericType()), sig, each.getName(), assignments,
                     getStaticFieldValue(each));
+            profile("@DataPoints field " + each.getName(), start, assignments.size() - before);
         }
     }
 
     private void addSinglePointFields(ParameterSignature sig, List<PotentialAssignment> assignments) {
         for (Field each : getSingleDataPointFields(sig)) {
+            long start = System.nanoTime();
             Object value = getStaticFieldValue(each);
 
-            if (sig.canAcceptType(each.getGenericType())) {
+            boolean accepted = sig.canAcceptType(each.getGenericType());
+            if (accepted) {
                 assignments.add(PotentialAssignment.forValue(each.getName(), value));
             }
+            profile("@DataPoint field " + each.getName(), start, accepted ? 1 : 0);
         }
     }
 
@@ -141,6 +169,12 @@ public class AllMembersSupplier extends ParameterSupplier {
         }
     }
 
+    private void profile(String source, long startNanos, int values) {
+        if (fProfile != null) {
+            fProfile.record(source, startNanos, values);
+        }
+    }
+
     private Object getStaticFieldValue(Field field) {
         try {
             return field.get(null);
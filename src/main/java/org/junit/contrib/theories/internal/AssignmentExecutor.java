@@ -0,0 +1,131 @@
+package org.junit.contrib.theories.internal;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the complete assignments of a theory, either one after another on the calling thread, or concurrently with
+ * a bounded number in flight.
+ */
+public abstract class AssignmentExecutor {
+    public interface Task {
+        void run() throws Throwable;
+    }
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "theories.virtualThreads";
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    public static AssignmentExecutor sequential() {
+        return new Sequential();
+    }
+
+    /**
+     * Gives an executor that runs each task on its own virtual thread, with at most the given number in flight,
+     * when the JVM supports virtual threads; or else a {@linkplain #sequential() sequential} executor. Virtual
+     * threads are supported from Java 21, and on Java 19 and 20 only with {@code --enable-preview}; Java 8 to 18
+     * always fall back. Setting the system property {@value #VIRTUAL_THREADS_PROPERTY} to {@code false} forces the
+     * fallback on any version.
+     */
+    public static AssignmentExecutor onVirtualThreads(int maxInFlight) {
+        if (maxInFlight <= 1 || NEW_VIRTUAL_THREAD_EXECUTOR == null
+                || "false".equals(System.getProperty(VIRTUAL_THREADS_PROPERTY))) {
+            return sequential();
+        }
+
+        try {
+            return concurrent((ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null), maxInFlight);
+        } catch (ReflectiveOperationException e) {
+            // Java 19 and 20 have the method, but refuse to make virtual threads without --enable-preview
+            return sequential();
+        }
+    }
+
+    public static AssignmentExecutor concurrent(ExecutorService threads, int maxInFlight) {
+        return new Concurrent(threads, maxInFlight);
+    }
+
+    /**
+     * Runs the given task, perhaps not before this method returns. Throws the failure of the task, or of any
+     * earlier task that has not yet been thrown.
+     */
+    public abstract void execute(Task task) throws Throwable;
+
+    /**
+     * Waits for every task given so far to finish, then throws the first of their failures that has not yet been
+     * thrown.
+     */
+    public abstract void await() throws Throwable;
+
+    /**
+     * Waits for every task given so far to finish, discarding their failures, and releases any threads held.
+     */
+    public abstract void close();
+
+    /**
+     * Changes the number of tasks allowed in flight at once, if this executor runs them concurrently.
+     */
+    public void resize(int maxInFlight) {
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static class Sequential extends AssignmentExecutor {
+        @Override public void execute(Task task) throws Throwable {
+            task.run();
+        }
+
+        @Override public void await() {
+        }
+
+        @Override public void close() {
+        }
+    }
+
+    private static class Concurrent extends AssignmentExecutor {
+        private final ExecutorService fThreads;
+        private final CompletionWindow fWindow;
+
+        Concurrent(ExecutorService threads, int maxInFlight) {
+            fThreads = threads;
+            fWindow = new CompletionWindow(maxInFlight);
+        }
+
+        @Override public void execute(final Task task) throws Throwable {
+            fWindow.reserve();
+            try {
+                fThreads.execute(() -> {
+                    try {
+                        task.run();
+                        fWindow.release();
+                    } catch (Throwable e) {
+                        fWindow.fail(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                fWindow.release();
+                throw e;
+            }
+        }
+
+        @Override public void await() throws Throwable {
+            fWindow.await();
+        }
+
+        @Override public void close() {
+            fWindow.drain();
+            fThreads.shutdown();
+        }
+
+        @Override public void resize(int maxInFlight) {
+            fWindow.resize(maxInFlight);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.junit.contrib.theories.internal;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.javaruntype.type.Types;
+import org.junit.AssumptionViolatedException;
+import org.junit.contrib.theories.ParameterSignature;
+import org.junit.contrib.theories.PotentialAssignment;
+import org.junit.contrib.theories.Shrinker;
+import org.junit.contrib.theories.ShrinksWith;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * <p>Searches for a smaller assignment that fails the same way as a failing one: with the same exception type,
+ * raised from the same frame.</p>
+ *
+ * <p>Each parameter in turn is given smaller values, first the other data points from the source its value came
+ * from, smallest first, then the simplifications proposed by its {@link Shrinker}. A smaller value that still
+ * fails is kept, and the search starts over, until no parameter can be made smaller, or the budget of
+ * {@value #DEFAULT_ATTEMPTS} attempts and {@value #DEFAULT_MILLIS} milliseconds (or the numbers given by the
+ * system properties {@value #ATTEMPTS_PROPERTY} and {@value #MILLIS_PROPERTY}) is spent.</p>
+ *
+ * <p>Candidates are tried within the prefix fixtures entered for the failing assignment, so the leading parameters
+ * those fixtures take are left as they are.</p>
+ */
+public class AssignmentShrinker {
+    public static final String ATTEMPTS_PROPERTY = "theories.shrinkAttempts";
+    public static final String MILLIS_PROPERTY = "theories.shrinkMillis";
+    public static final int DEFAULT_ATTEMPTS = 500;
+    public static final long DEFAULT_MILLIS = 5000;
+
+    private static final String SHRUNK = ", shrunk";
+
+    public interface Trial {
+        /**
+         * @return how the given assignment failed, or {@code null} if it did not
+         */
+        Throwable run(Assignments candidate);
+    }
+
+    private final Combinations fCombinations;
+    private final List<ParameterSignature> fSignatures;
+    private final int fFixed;
+    private final Trial fTrial;
+    private final int fMaxAttempts;
+    private final long fDeadline;
+
+    private int fAttempts;
+    private Assignments fSmallest;
+    private Throwable fFailure;
+
+    /**
+     * @param fixed the number of leading parameters to leave as they are
+     */
+    public AssignmentShrinker(Combinations combinations, List<ParameterSignature> signatures, int fixed, Trial trial) {
+        fCombinations = combinations;
+        fSignatures = signatures;
+        fFixed = fixed;
+        fTrial = trial;
+        fMaxAttempts = Integer.getInteger(ATTEMPTS_PROPERTY, DEFAULT_ATTEMPTS);
+        fDeadline = System.nanoTime() + MILLISECONDS.toNanos(Long.getLong(MILLIS_PROPERTY, DEFAULT_MILLIS));
+    }
+
+    /**
+     * @return the smallest failing assignment found, which is {@code failing} if none smaller was
+     */
+    public Assignments shrink(Assignments failing, Throwable failure) throws Exception {
+        String signature = FailureCollector.signatureOf(failure);
+        fSmallest = failing;
+        fFailure = failure;
+
+        boolean shrunk = true;
+        while (shrunk && hasBudget()) {
+            shrunk = false;
+            for (int position = fFixed; position < fSignatures.size() && hasBudget(); position++) {
+                shrunk |= shrinkAt(position, signature);
+            }
+        }
+        return fSmallest;
+    }
+
+    /**
+     * @return how the smallest failing assignment failed
+     */
+    public Throwable getFailure() {
+        return fFailure;
+    }
+
+    public int getAttempts() {
+        return fAttempts;
+    }
+
+    private boolean hasBudget() {
+        return fAttempts < fMaxAttempts && System.nanoTime() - fDeadline < 0;
+    }
+
+    private boolean shrinkAt(int position, String signature) throws Exception {
+        PotentialAssignment current = fSmallest.getAssigned().get(position);
+        Object value = valueOf(current);
+        double size = sizeOf(value);
+
+        for (PotentialAssignment each : smallerDataPoints(position, current, size)) {
+            if (!hasBudget()) {
+                return false;
+            }
+            if (fails(position, each, signature)) {
+                return true;
+            }
+        }
+
+        String shrunkFrom = FailureDatabase.sourceOf(Combinations.describe(current));
+        if (!shrunkFrom.endsWith(SHRUNK)) {
+            shrunkFrom += SHRUNK;
+        }
+        ParameterSignature sig = fSignatures.get(position);
+        // a shrinker's proposals are taken one at a time, so it can make each only when it is asked for
+        for (Object each : shrinkerFor(sig).shrink(value, sig)) {
+            if (!accepts(sig, each) || sizeOf(each) >= size) {
+                continue;
+            }
+            if (!hasBudget()) {
+                return false;
+            }
+            if (fails(position, PotentialAssignment.forValue(shrunkFrom, each), signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean fails(int position, PotentialAssignment value, String signature) {
+        ++fAttempts;
+        Assignments candidate = fSmallest.reassign(position, value);
+        Throwable failure = fTrial.run(candidate);
+        if (failure != null
+                && !(failure instanceof AssumptionViolatedException)
+                && signature.equals(FailureCollector.signatureOf(failure))) {
+            fSmallest = candidate;
+            fFailure = failure;
+            return true;
+        }
+        return false;
+    }
+
+    private List<PotentialAssignment> smallerDataPoints(int position, PotentialAssignment current, double size) {
+        String source = sourceNameOf(current);
+        Map<PotentialAssignment, Double> sizes = new IdentityHashMap<>();
+        List<PotentialAssignment> candidates = new ArrayList<>();
+        for (PotentialAssignment each : fCombinations.potentialsAt(position)) {
+            if (each != current && source.equals(sourceNameOf(each))) {
+                double eachSize = sizeOf(valueOf(each));
+                if (eachSize < size) {
+                    sizes.put(each, eachSize);
+                    candidates.add(each);
+                }
+            }
+        }
+        candidates.sort(Comparator.comparing(sizes::get));
+        return candidates;
+    }
+
+    private static boolean accepts(ParameterSignature sig, Object value) {
+        // shrinkers can only propose raw types, so a parameterized parameter is checked by its raw type
+        return sig.canAcceptValue(value)
+                || value != null && Types.forJavaLangReflectType(sig.getType()).getRawClass().isInstance(value);
+    }
+
+    private static Object valueOf(PotentialAssignment potential) {
+        try {
+            return potential.getValue();
+        } catch (PotentialAssignment.CouldNotGenerateValueException e) {
+            return null;
+        }
+    }
+
+    private static String sourceNameOf(PotentialAssignment potential) {
+        String source = FailureDatabase.sourceOf(Combinations.describe(potential));
+        int index = source.lastIndexOf('[');
+        return index < 0 ? source : source.substring(0, index);
+    }
+
+    private static Shrinker shrinkerFor(ParameterSignature sig) throws Exception {
+        ShrinksWith annotation = sig.findDeepAnnotation(ShrinksWith.class);
+        if (annotation == null) {
+            return new DefaultShrinker();
+        }
+
+        try {
+            return annotation.value().getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    static double sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value instanceof Collection<?>) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof Map<?, ?>) {
+            return ((Map<?, ?>) value).size();
+        }
+        if (value.getClass().isArray()) {
+            return Array.getLength(value);
+        }
+        if (value instanceof Number) {
+            return Math.abs(((Number) value).doubleValue());
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        if (value instanceof Enum<?>) {
+            return ((Enum<?>) value).ordinal();
+        }
+        return ParameterizedAssertionError.join("", value).length();
+    }
+}
@@ -18,11 +18,18 @@ public class Assignments {
     private final List<PotentialAssignment> fAssigned;
     private final List<ParameterSignature> fUnassigned;
     private final TestClass fClass;
+    private final long fOrdinal;
 
     private Assignments(List<PotentialAssignment> assigned, List<ParameterSignature> unassigned, TestClass testClass) {
+        this(assigned, unassigned, testClass, -1);
+    }
+
+    private Assignments(List<PotentialAssignment> assigned, List<ParameterSignature> unassigned, TestClass testClass,
+            long ordinal) {
         fUnassigned = unassigned;
         fAssigned = assigned;
         fClass = testClass;
+        fOrdinal = ordinal;
     }
 
     public static Assignments allUnassigned(Method testMethod, TestClass testClass) throws Exception {
@@ -36,6 +43,10 @@ public class Assignments {
         return fUnassigned.size() == 0;
     }
 
+    public int getAssignedCount() {
+        return fAssigned.size();
+    }
+
     public ParameterSignature nextUnassigned() {
         return fUnassigned.get(0);
     }
@@ -47,6 +58,34 @@ public class Assignments {
         return new Assignments(assigned, fUnassigned.subList(1, fUnassigned.size()), fClass);
     }
 
+    /**
+     * @return these assignments, numbered {@code ordinal} among the combinations the runner enumerates
+     */
+    public Assignments numbered(long ordinal) {
+        return new Assignments(fAssigned, fUnassigned, fClass, ordinal);
+    }
+
+    /**
+     * @return the number given by {@link #numbered(long)}, or -1 if these assignments were not numbered
+     */
+    public long getOrdinal() {
+        return fOrdinal;
+    }
+
+    public List<PotentialAssignment> getAssigned() {
+        return unmodifiableList(fAssigned);
+    }
+
+    /**
+     * @return these assignments, with the source of the parameter at the given position replaced
+     */
+    public Assignments reassign(int position, PotentialAssignment source) {
+        List<PotentialAssignment> assigned = new ArrayList<>(fAssigned);
+        assigned.set(position, source);
+
+        return new Assignments(assigned, fUnassigned, fClass);
+    }
+
     public Object[] getActualValues(int start, int stop) throws PotentialAssignment.CouldNotGenerateValueException {
         Object[] values = new Object[stop - start];
         for (int i = start; i < stop; i++) {
@@ -57,15 +96,38 @@ public class Assignments {
 
     public List<PotentialAssignment> potentialsForNextUnassigned() throws Throwable {
         ParameterSignature unassigned = nextUnassigned();
-        List<PotentialAssignment> assignments = getSupplier(unassigned).getValueSources(unassigned);
+        TheoryEvents.SupplierSpan span = TheoryEvents.get().supplierStarted(fClass.getJavaClass(), unassigned);
+        ParameterSupplier supplier = getSupplier(unassigned);
+        long start = System.nanoTime();
+        List<PotentialAssignment> assignments = supplier.getValueSources(unassigned);
+        SupplierProfile profile = supplier instanceof AllMembersSupplier ? null : SupplierProfile.of(fClass);
+        if (profile != null) {
+            profile.record("@ParametersSuppliedBy " + supplier.getClass().getName(), start, assignments.size());
+        }
 
         if (assignments.size() == 0) {
             assignments = generateAssignmentsFromTypeAlone(unassigned);
         }
 
+        span.end(supplier.getClass(), assignments.size());
         return assignments;
     }
 
+    /**
+     * @return the numbered ways of assigning the parameters not yet assigned
+     */
+    public Combinations combinations() throws Throwable {
+        return combinations(Assignments::potentialsForNextUnassigned);
+    }
+
+    /**
+     * @return the numbered ways of assigning the parameters not yet assigned, asking the given supply for the
+     * potential values of each
+     */
+    public Combinations combinations(Combinations.Supply supply) throws Throwable {
+        return new Combinations(this, supply);
+    }
+
     private List<PotentialAssignment> generateAssignmentsFromTypeAlone(ParameterSignature unassigned) {
         org.javaruntype.type.Type<?> paramType = forJavaLangReflectType(unassigned.getType());
         Class<?> klass = paramType.getRawClass();
@@ -106,6 +168,10 @@ public class Assignments {
         return getActualValues(0, getConstructorParameterCount());
     }
 
+    public List<PotentialAssignment> getConstructorAssignments() {
+        return unmodifiableList(fAssigned.subList(0, getConstructorParameterCount()));
+    }
+
     public Object[] getMethodArguments() throws PotentialAssignment.CouldNotGenerateValueException {
         return getActualValues(getConstructorParameterCount(), fAssigned.size());
     }
@@ -0,0 +1,161 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * <p>Records how far a run of a theory has got, so that a run cut short by a crash can be resumed. Checkpoints are
+ * written when the system property {@value #INTERVAL_PROPERTY} gives the least number of milliseconds between
+ * them, to the {@code checkpoints} subdirectory of the {@link StateDirectory state directory}.</p>
+ *
+ * <p>A checkpoint holds the theory's identity, the {@link Combinations#fingerprint() fingerprint} of its data
+ * points, the number of leading assignments that have finished, and the counts of successes and violated
+ * assumptions so far. A run of the same theory with the same data points skips the finished assignments. The
+ * checkpoint is discarded once a run finishes, whether or not the theory held.</p>
+ */
+public class Checkpoint {
+    public static final String INTERVAL_PROPERTY = "theories.checkpointInterval";
+
+    private static final String THEORY = "theory";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String POSITION = "position";
+    private static final String SUCCESSES = "successes";
+    private static final String ASSUMPTION_VIOLATIONS = "assumptionViolations";
+
+    private final Path fFile;
+    private final String fTheory;
+    private final String fFingerprint;
+    private final long fIntervalNanos;
+    private final IntSupplier fSuccesses;
+    private final IntSupplier fAssumptionViolations;
+    private final Properties fResumed;
+    private final TreeMap<Long, Long> fFinishedAhead = new TreeMap<>();
+
+    private long fPosition;
+    private long fLastWritten = System.nanoTime();
+
+    private Checkpoint(Path file, String theory, String fingerprint, long intervalMillis, IntSupplier successes,
+            IntSupplier assumptionViolations, Properties resumed) {
+
+        fFile = file;
+        fTheory = theory;
+        fFingerprint = fingerprint;
+        fIntervalNanos = MILLISECONDS.toNanos(intervalMillis);
+        fSuccesses = successes;
+        fAssumptionViolations = assumptionViolations;
+        fResumed = resumed;
+        fPosition = resumedCount(POSITION);
+    }
+
+    /**
+     * @return whether checkpoints are being written
+     */
+    public static boolean isEnabled() {
+        return Long.getLong(INTERVAL_PROPERTY, 0) > 0;
+    }
+
+    /**
+     * @return a checkpoint for the given theory, resuming from any earlier checkpoint of the same combinations, or
+     * {@code null} if checkpoints are not enabled, in which case the combinations are not fingerprinted
+     */
+    public static Checkpoint open(String theory, Combinations combinations, IntSupplier successes,
+            IntSupplier assumptionViolations) throws IOException {
+
+        long interval = Long.getLong(INTERVAL_PROPERTY, 0);
+        if (interval <= 0) {
+            return null;
+        }
+
+        String fingerprint = combinations.fingerprint();
+        Path file = StateDirectory.resolve("checkpoints", theory + ".checkpoint");
+        Properties resumed = new Properties();
+        if (Files.exists(file)) {
+            Properties earlier = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                earlier.load(in);
+            }
+            if (theory.equals(earlier.getProperty(THEORY)) && fingerprint.equals(earlier.getProperty(FINGERPRINT))) {
+                resumed = earlier;
+            }
+        }
+
+        return new Checkpoint(file, theory, fingerprint, interval, successes, assumptionViolations, resumed);
+    }
+
+    /**
+     * @return the number of leading assignments finished by earlier runs
+     */
+    public long resumeFrom() {
+        return resumedCount(POSITION);
+    }
+
+    public int resumedSuccesses() {
+        return (int) resumedCount(SUCCESSES);
+    }
+
+    public int resumedAssumptionViolations() {
+        return (int) resumedCount(ASSUMPTION_VIOLATIONS);
+    }
+
+    private long resumedCount(String key) {
+        return Long.parseLong(fResumed.getProperty(key, "0"));
+    }
+
+    /**
+     * Records that the assignments from {@code start} (inclusive) to {@code end} (exclusive) have finished, or need
+     * not be run, and writes a checkpoint if one is due.
+     */
+    public synchronized void finished(long start, long end) throws IOException {
+        start = Math.max(start, fPosition);
+        if (start >= end) {
+            return;
+        }
+
+        if (start > fPosition) {
+            fFinishedAhead.put(start, end);
+            return;
+        }
+
+        fPosition = end;
+        while (!fFinishedAhead.isEmpty() && fFinishedAhead.firstKey() <= fPosition) {
+            fPosition = Math.max(fPosition, fFinishedAhead.pollFirstEntry().getValue());
+        }
+
+        if (System.nanoTime() - fLastWritten >= fIntervalNanos) {
+            write();
+        }
+    }
+
+    private void write() throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty(THEORY, fTheory);
+        checkpoint.setProperty(FINGERPRINT, fFingerprint);
+        checkpoint.setProperty(POSITION, String.valueOf(fPosition));
+        checkpoint.setProperty(SUCCESSES, String.valueOf(fSuccesses.getAsInt()));
+        checkpoint.setProperty(ASSUMPTION_VIOLATIONS, String.valueOf(fAssumptionViolations.getAsInt()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        checkpoint.store(bytes, null);
+        StateDirectory.write(fFile, bytes.toByteArray());
+        fLastWritten = System.nanoTime();
+    }
+
+    /**
+     * Writes a checkpoint now, whether or not one is due.
+     */
+    public synchronized void save() throws IOException {
+        write();
+    }
+
+    public void discard() throws IOException {
+        Files.deleteIfExists(fFile);
+    }
+}
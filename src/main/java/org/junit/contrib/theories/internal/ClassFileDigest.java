@@ -0,0 +1,309 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * Digests the instructions of a class's methods, read from its class file, leaving out the static initializer and
+ * any methods named, and the line numbers and other debugging information, so that adding data points does not
+ * change the digest.
+ */
+public final class ClassFileDigest {
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    private ClassFileDigest() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the digest, or {@code null} if the class file cannot be read
+     */
+    public static String digest(Class<?> type, Set<String> excludedMethods) {
+        String resource = "/" + type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getResourceAsStream(resource)) {
+            return in == null ? null : digest(new DataInputStream(in), excludedMethods);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String digest(DataInputStream in, Set<String> excludedMethods) throws IOException {
+        MessageDigest digest = sha256();
+
+        in.readInt();
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        ConstantPool pool = new ConstantPool(in);
+
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        skip(in, 2 * in.readUnsignedShort());
+
+        int fields = in.readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            skip(in, 6);
+            skipAttributes(in);
+        }
+
+        int methods = in.readUnsignedShort();
+        for (int i = 0; i < methods; i++) {
+            in.readUnsignedShort();
+            String name = pool.utf8(in.readUnsignedShort());
+            String descriptor = pool.utf8(in.readUnsignedShort());
+            boolean included = !"<clinit>".equals(name) && !excludedMethods.contains(name);
+            if (included) {
+                update(digest, name + descriptor);
+            }
+
+            int attributes = in.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                String attribute = pool.utf8(in.readUnsignedShort());
+                int length = in.readInt();
+                if (included && "Code".equals(attribute)) {
+                    digestCode(in, pool, digest);
+                } else {
+                    skip(in, length);
+                }
+            }
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte each : digest.digest()) {
+            hex.append(format("%02x", each));
+        }
+        return hex.toString();
+    }
+
+    private static void digestCode(DataInputStream in, ConstantPool pool, MessageDigest digest) throws IOException {
+        byte[] limits = new byte[4];
+        in.readFully(limits);
+        digest.update(limits);
+
+        byte[] code = new byte[in.readInt()];
+        in.readFully(code);
+        digestInstructions(ByteBuffer.wrap(code), pool, digest);
+
+        int handlers = in.readUnsignedShort();
+        for (int i = 0; i < handlers; i++) {
+            update(digest, in.readUnsignedShort() + " " + in.readUnsignedShort() + " " + in.readUnsignedShort()
+                    + " " + pool.resolve(in.readUnsignedShort()));
+        }
+
+        // line numbers, local variable names and stack maps
+        skipAttributes(in);
+    }
+
+    /**
+     * Digests the instructions with their constant pool references resolved, since adding a constant elsewhere in
+     * the class can renumber the pool.
+     */
+    private static void digestInstructions(ByteBuffer code, ConstantPool pool, MessageDigest digest) {
+        while (code.hasRemaining()) {
+            int offset = code.position();
+            int opcode = code.get() & 0xff;
+            digest.update((byte) opcode);
+            switch (opcode) {
+                case 0x12: // ldc
+                    update(digest, pool.resolve(code.get() & 0xff));
+                    break;
+                case 0x13: // ldc_w
+                case 0x14: // ldc2_w
+                case 0xb2: // getstatic
+                case 0xb3: // putstatic
+                case 0xb4: // getfield
+                case 0xb5: // putfield
+                case 0xb6: // invokevirtual
+                case 0xb7: // invokespecial
+                case 0xb8: // invokestatic
+                case 0xbb: // new
+                case 0xbd: // anewarray
+                case 0xc0: // checkcast
+                case 0xc1: // instanceof
+                    update(digest, pool.resolve(code.getShort() & 0xffff));
+                    break;
+                case 0xb9: // invokeinterface
+                case 0xba: // invokedynamic
+                    update(digest, pool.resolve(code.getShort() & 0xffff));
+                    copy(code, 2, digest);
+                    break;
+                case 0xc5: // multianewarray
+                    update(digest, pool.resolve(code.getShort() & 0xffff));
+                    copy(code, 1, digest);
+                    break;
+                case 0xaa: // tableswitch
+                    code.position(offset + 4 - offset % 4);
+                    copy(code, 4, digest);
+                    int low = code.getInt();
+                    int high = code.getInt();
+                    update(digest, low + " " + high);
+                    copy(code, 4 * (high - low + 1), digest);
+                    break;
+                case 0xab: // lookupswitch
+                    code.position(offset + 4 - offset % 4);
+                    copy(code, 4, digest);
+                    int pairs = code.getInt();
+                    update(digest, String.valueOf(pairs));
+                    copy(code, 8 * pairs, digest);
+                    break;
+                case 0xc4: // wide
+                    int widened = code.get() & 0xff;
+                    digest.update((byte) widened);
+                    copy(code, widened == 0x84 ? 4 : 2, digest);
+                    break;
+                default:
+                    copy(code, operandLength(opcode), digest);
+            }
+        }
+    }
+
+    private static int operandLength(int opcode) {
+        if (opcode == 0x10 || opcode == 0xbc // bipush, newarray
+                || opcode >= 0x15 && opcode <= 0x19 // loads
+                || opcode >= 0x36 && opcode <= 0x3a // stores
+                || opcode == 0xa9) { // ret
+            return 1;
+        }
+        if (opcode == 0x11 || opcode == 0x84 // sipush, iinc
+                || opcode >= 0x99 && opcode <= 0xa8 // comparisons, goto, jsr
+                || opcode == 0xc6 || opcode == 0xc7) { // ifnull, ifnonnull
+            return 2;
+        }
+        if (opcode == 0xc8 || opcode == 0xc9) { // goto_w, jsr_w
+            return 4;
+        }
+        return 0;
+    }
+
+    private static void copy(ByteBuffer code, int bytes, MessageDigest digest) {
+        byte[] operands = new byte[bytes];
+        code.get(operands);
+        digest.update(operands);
+    }
+
+    private static void update(MessageDigest digest, String text) {
+        digest.update(text.getBytes(UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            in.readUnsignedShort();
+            skip(in, in.readInt());
+        }
+    }
+
+    private static void skip(DataInputStream in, int bytes) throws IOException {
+        in.readFully(new byte[bytes]);
+    }
+
+    private static final class ConstantPool {
+        private final int[] fTags;
+        private final Object[] fEntries;
+
+        ConstantPool(DataInputStream in) throws IOException {
+            int count = in.readUnsignedShort();
+            fTags = new int[count];
+            fEntries = new Object[count];
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                fTags[i] = tag;
+                switch (tag) {
+                    case UTF8:
+                        fEntries[i] = in.readUTF();
+                        break;
+                    case INTEGER:
+                        fEntries[i] = in.readInt();
+                        break;
+                    case FLOAT:
+                        fEntries[i] = in.readFloat();
+                        break;
+                    case LONG:
+                        fEntries[i++] = in.readLong();
+                        break;
+                    case DOUBLE:
+                        fEntries[i++] = in.readDouble();
+                        break;
+                    case METHOD_HANDLE:
+                        fEntries[i] = new int[] { -1 - in.readUnsignedByte(), in.readUnsignedShort() };
+                        break;
+                    case CLASS:
+                    case STRING:
+                    case METHOD_TYPE:
+                    case MODULE:
+                    case PACKAGE:
+                        fEntries[i] = new int[] { in.readUnsignedShort() };
+                        break;
+                    case FIELD_REF:
+                    case METHOD_REF:
+                    case INTERFACE_METHOD_REF:
+                    case NAME_AND_TYPE:
+                        fEntries[i] = new int[] { in.readUnsignedShort(), in.readUnsignedShort() };
+                        break;
+                    case DYNAMIC:
+                    case INVOKE_DYNAMIC:
+                        // the bootstrap method is numbered, not referenced through the pool
+                        fEntries[i] = new int[] { -1 - in.readUnsignedShort(), in.readUnsignedShort() };
+                        break;
+                    default:
+                        throw new IOException("unknown constant pool tag " + tag);
+                }
+            }
+        }
+
+        String utf8(int index) {
+            return (String) fEntries[index];
+        }
+
+        /**
+         * @return the entry with the entries it refers to spelled out, numbers below zero standing for themselves
+         */
+        String resolve(int index) {
+            if (index == 0) {
+                return "";
+            }
+            Object entry = fEntries[index];
+            if (!(entry instanceof int[])) {
+                return fTags[index] + ":" + entry;
+            }
+            StringBuilder resolved = new StringBuilder().append(fTags[index]);
+            for (int each : (int[]) entry) {
+                resolved.append(':').append(each < 0 ? String.valueOf(-1 - each) : resolve(each));
+            }
+            return resolved.toString();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.List;
+
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+
+import static java.lang.String.format;
+
+/**
+ * <p>Counts, when a test class is validated, the combinations of values each of its theories' parameters can take,
+ * so that a theory grown too large is caught before it runs. A theory with more combinations than the system
+ * property {@value #MAX_PROPERTY} allows fails validation; one with more than {@value #WARN_PROPERTY} is warned
+ * about on standard error. Counting asks every supplier for its values, so it is only done when either property is
+ * set.</p>
+ *
+ * <p>Theories whose suppliers fail while being counted are left for their run to report.</p>
+ */
+public final class CombinationGuard {
+    public static final String MAX_PROPERTY = "theories.maxCombinations";
+    public static final String WARN_PROPERTY = "theories.warnCombinations";
+
+    private CombinationGuard() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void validate(TestClass testClass, List<FrameworkMethod> theories, List<Throwable> errors) {
+        Long max = Long.getLong(MAX_PROPERTY);
+        Long warn = Long.getLong(WARN_PROPERTY);
+        if (max == null && warn == null) {
+            return;
+        }
+
+        for (FrameworkMethod each : theories) {
+            long combinations;
+            try {
+                combinations = Assignments.allUnassigned(each.getMethod(), testClass).combinations().size();
+            } catch (Throwable e) {
+                continue;
+            }
+
+            String theory = testClass.getName() + "#" + each.getName();
+            if (max != null && combinations > max) {
+                errors.add(new Error(format("Theory %s has %d combinations of parameter values, more than the %d"
+                        + " allowed by %s", theory, combinations, max, MAX_PROPERTY)));
+            } else if (warn != null && combinations > warn) {
+                System.err.println(format("Theory %s has %d combinations of parameter values, more than %d (%s)",
+                        theory, combinations, warn, WARN_PROPERTY));
+            }
+        }
+    }
+}
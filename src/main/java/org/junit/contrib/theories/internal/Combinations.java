@@ -0,0 +1,232 @@
+package org.junit.contrib.theories.internal;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.junit.contrib.theories.PotentialAssignment;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+
+/**
+ * <p>Numbers the ways of completing an {@link Assignments assignment}, in the order in which the
+ * {@link org.junit.contrib.theories.Theories} runner enumerates them: the first unassigned parameter varies
+ * slowest, and the last fastest.</p>
+ *
+ * <p>Combination <em>k</em> is decoded from <em>k</em> as a mixed-radix number whose digits index the potential
+ * values of each parameter, without visiting the combinations before it. Data points are supplied by parameter
+ * signature alone, so the potential values of each parameter are gathered once.</p>
+ */
+public class Combinations {
+    private static final int AMBIGUOUS = -1;
+
+    private final Assignments fPrefix;
+    private final List<List<PotentialAssignment>> fPotentials;
+    private final long[] fSizeFrom;
+    private List<Map<String, Integer>> fDigitsByDescription;
+    private List<Map<String, Integer>> fDigitsByValue;
+    private List<Map<String, Integer>> fDigitsBySource;
+
+    Combinations(Assignments prefix, Supply supply) throws Throwable {
+        fPrefix = prefix;
+
+        List<List<PotentialAssignment>> potentials = new ArrayList<>();
+        for (Assignments each = prefix; !each.isComplete(); ) {
+            List<PotentialAssignment> next = supply.potentialsForNextUnassigned(each);
+            potentials.add(unmodifiableList(next));
+            if (next.isEmpty()) {
+                break;
+            }
+            each = each.assignNext(next.get(0));
+        }
+        fPotentials = unmodifiableList(potentials);
+
+        fSizeFrom = new long[potentials.size() + 1];
+        fSizeFrom[potentials.size()] = 1;
+        for (int depth = potentials.size() - 1; depth >= 0; depth--) {
+            try {
+                fSizeFrom[depth] = Math.multiplyExact(potentials.get(depth).size(), fSizeFrom[depth + 1]);
+            } catch (ArithmeticException e) {
+                throw new IllegalStateException("more than " + Long.MAX_VALUE + " combinations to number");
+            }
+        }
+    }
+
+    /**
+     * Asks for the potential values of the next unassigned parameter of an assignment.
+     */
+    public interface Supply {
+        List<PotentialAssignment> potentialsForNextUnassigned(Assignments incomplete) throws Throwable;
+    }
+
+    /**
+     * @return the number of combinations
+     */
+    public long size() {
+        return fSizeFrom[0];
+    }
+
+    /**
+     * @return the potential values of the unassigned parameter at the given depth, counting from the first
+     * unassigned parameter
+     */
+    public List<PotentialAssignment> potentialsAt(int depth) {
+        return depth < fPotentials.size() ? fPotentials.get(depth) : emptyList();
+    }
+
+    /**
+     * @return the number of combinations of the values of the unassigned parameters from the given depth on; the
+     * combinations sharing the values of the parameters before it are consecutively numbered runs of this length
+     */
+    public long sizeFrom(int depth) {
+        return depth < fSizeFrom.length ? fSizeFrom[depth] : 1;
+    }
+
+    /**
+     * @return a digest of the descriptions of the potential values of every parameter, in order, which changes when
+     * the combinations would be numbered differently; values whose string forms vary from run to run give a
+     * different fingerprint on every run
+     */
+    public String fingerprint() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (List<PotentialAssignment> each : fPotentials) {
+            for (PotentialAssignment potential : each) {
+                digest.update(describe(potential).getBytes(UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update((byte) 1);
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte each : digest.digest()) {
+            hex.append(format("%02x", each));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @return the number of the combination whose values have the given descriptions, such as
+     * {@code "2" <from INTS[2]>}, one per unassigned parameter, or {@code null} if there is none or it is ambiguous;
+     * a description matching none of a parameter's potential values stands for the value with the same string form
+     * from the same data point source at any index, such as {@code "2" <from INTS>}, if just one of them is
+     */
+    public synchronized Long indexOf(List<String> descriptions) {
+        indexDigits();
+        return indexOf(descriptions, fDigitsByDescription, fDigitsByValue, FailureDatabase::withoutIndex);
+    }
+
+    /**
+     * @return the names of the values with the given descriptions, one per unassigned parameter, each as short as
+     * tells it apart from the parameter's other potential values: the data point source and index it came from,
+     * such as {@code INTS[2]}, or else its whole description
+     */
+    public synchronized List<String> namesOf(List<String> descriptions) {
+        indexDigits();
+        List<String> names = new ArrayList<>();
+        for (int depth = 0; depth < descriptions.size(); depth++) {
+            String description = descriptions.get(depth);
+            String source = FailureDatabase.sourceOf(description);
+            Integer digit = depth < fDigitsBySource.size() ? fDigitsBySource.get(depth).get(source) : null;
+            boolean unique = digit != null && digit != AMBIGUOUS
+                    && digit.equals(fDigitsByDescription.get(depth).get(description));
+            names.add(unique ? source : description);
+        }
+        return names;
+    }
+
+    /**
+     * @return the number of the combination whose values have the given {@linkplain #namesOf(List) names}, or
+     * {@code null} if there is none or it is ambiguous
+     */
+    public synchronized Long indexOfNames(List<String> names) {
+        indexDigits();
+        return indexOf(names, fDigitsBySource, fDigitsByDescription, UnaryOperator.identity());
+    }
+
+    private void indexDigits() {
+        if (fDigitsByDescription != null) {
+            return;
+        }
+
+        fDigitsByDescription = new ArrayList<>();
+        fDigitsByValue = new ArrayList<>();
+        fDigitsBySource = new ArrayList<>();
+        for (List<PotentialAssignment> potentials : fPotentials) {
+            Map<String, Integer> byDescription = new HashMap<>();
+            Map<String, Integer> byValue = new HashMap<>();
+            Map<String, Integer> bySource = new HashMap<>();
+            for (int i = 0; i < potentials.size(); i++) {
+                String description = describe(potentials.get(i));
+                putUnlessAmbiguous(byDescription, description, i);
+                putUnlessAmbiguous(byValue, FailureDatabase.withoutIndex(description), i);
+                putUnlessAmbiguous(bySource, FailureDatabase.sourceOf(description), i);
+            }
+            fDigitsByDescription.add(byDescription);
+            fDigitsByValue.add(byValue);
+            fDigitsBySource.add(bySource);
+        }
+    }
+
+    private Long indexOf(List<String> keys, List<Map<String, Integer>> digits, List<Map<String, Integer>> fallback,
+            UnaryOperator<String> fallbackKey) {
+
+        if (keys.size() != digits.size()) {
+            return null;
+        }
+
+        long index = 0;
+        for (int depth = 0; depth < keys.size(); depth++) {
+            String key = keys.get(depth);
+            Integer digit = digits.get(depth).get(key);
+            if (digit == null) {
+                digit = fallback.get(depth).get(fallbackKey.apply(key));
+            }
+            if (digit == null || digit == AMBIGUOUS) {
+                return null;
+            }
+            index += digit * fSizeFrom[depth + 1];
+        }
+        return index;
+    }
+
+    private static void putUnlessAmbiguous(Map<String, Integer> digits, String key, int digit) {
+        digits.merge(key, digit, (first, second) -> AMBIGUOUS);
+    }
+
+    static String describe(PotentialAssignment potential) {
+        try {
+            return potential.getDescription();
+        } catch (PotentialAssignment.CouldNotGenerateValueException e) {
+            return "[could not generate value: " + e.getCause() + "]";
+        }
+    }
+
+    /**
+     * @return the complete assignment numbered {@code index}
+     */
+    public Assignments get(long index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(format("combination %d of %d", index, size()));
+        }
+
+        Assignments combination = fPrefix;
+        for (int depth = 0; depth < fPotentials.size(); depth++) {
+            List<PotentialAssignment> potentials = fPotentials.get(depth);
+            int digit = (int) (index / fSizeFrom[depth + 1] % potentials.size());
+            combination = combination.assignNext(potentials.get(digit));
+        }
+        return combination;
+    }
+}
@@ -0,0 +1,147 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds the number of a theory's assignments that are in flight at once, and holds on to the first of their
+ * failures until the theory is ready to hear about it.
+ */
+public class CompletionWindow {
+    public interface Outcome {
+        /**
+         * Handles the completion of an assignment.
+         *
+         * @param failure why the assignment failed, or {@code null} if it succeeded
+         */
+        void handle(Throwable failure) throws Throwable;
+    }
+
+    private final Lock fLock = new ReentrantLock();
+    private final Condition fChanged = fLock.newCondition();
+    private final AtomicReference<Throwable> fFailure = new AtomicReference<>();
+    private int fSize;
+    private int fInFlight;
+
+    public CompletionWindow(int size) {
+        fSize = size;
+    }
+
+    /**
+     * Waits for room in the window for another assignment. Throws the first failure of an assignment that has not
+     * yet been thrown.
+     */
+    public void reserve() throws Throwable {
+        throwFailure();
+        fLock.lock();
+        try {
+            while (fInFlight >= fSize) {
+                fChanged.await();
+            }
+            ++fInFlight;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Gives up a reservation, on behalf of an assignment that has finished or never started.
+     */
+    public void release() {
+        fLock.lock();
+        try {
+            --fInFlight;
+            fChanged.signalAll();
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Gives up a reservation on behalf of an assignment that failed.
+     */
+    public void fail(Throwable failure) {
+        fFailure.compareAndSet(null, failure);
+        release();
+    }
+
+    /**
+     * Changes the number of assignments allowed in flight at once. When it shrinks, no more are let in until
+     * enough of those in flight have finished.
+     */
+    public void resize(int size) {
+        fLock.lock();
+        try {
+            fSize = Math.max(1, size);
+            fChanged.signalAll();
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Gives up a reservation when the given stage completes, after handing its outcome to the given handler.
+     */
+    public void releaseWhen(CompletionStage<?> stage, final Outcome outcome) {
+        stage.whenComplete((result, failure) -> {
+            try {
+                outcome.handle(unwrap(failure));
+                release();
+            } catch (Throwable e) {
+                fail(e);
+            }
+        });
+    }
+
+    /**
+     * Waits for every reservation to be given up, then throws the first failure of an assignment that has not yet
+     * been thrown.
+     */
+    public void await() throws Throwable {
+        fLock.lock();
+        try {
+            while (fInFlight > 0) {
+                fChanged.await();
+            }
+        } finally {
+            fLock.unlock();
+        }
+
+        throwFailure();
+    }
+
+    /**
+     * Waits for every reservation to be given up, discarding failures.
+     */
+    public void drain() {
+        fLock.lock();
+        try {
+            while (fInFlight > 0) {
+                fChanged.awaitUninterruptibly();
+            }
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    private void throwFailure() throws Throwable {
+        Throwable failure = fFailure.getAndSet(null);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        Throwable unwrapped = failure;
+        while ((unwrapped instanceof CompletionException || unwrapped instanceof ExecutionException)
+                && unwrapped.getCause() != null) {
+            unwrapped = unwrapped.getCause();
+        }
+        return unwrapped;
+    }
+}
@@ -0,0 +1,102 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runners.model.RunnerScheduler;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Runs the children of a runner on a bounded pool of daemon threads shared across the JVM, in the order in which
+ * they are scheduled, and waits for all of them to finish.
+ */
+public class ConcurrentTheoryScheduler implements RunnerScheduler {
+    public static final String THREADS_PROPERTY = "theories.threads";
+
+    private static final ThreadPoolExecutor POOL = newPool();
+
+    private final List<Runnable> fChildren = new ArrayList<>();
+
+    public static void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("parallelism must be positive, was " + threads);
+        }
+
+        synchronized (POOL) {
+            if (threads > POOL.getMaximumPoolSize()) {
+                POOL.setMaximumPoolSize(threads);
+                POOL.setCorePoolSize(threads);
+            } else {
+                POOL.setCorePoolSize(threads);
+                POOL.setMaximumPoolSize(threads);
+            }
+        }
+    }
+
+    public static int getParallelism() {
+        return POOL.getMaximumPoolSize();
+    }
+
+    @Override public void schedule(Runnable childStatement) {
+        fChildren.add(childStatement);
+    }
+
+    @Override public void finished() {
+        if (Thread.currentThread() instanceof Worker) {
+            // already on the pool: waiting on it could starve it, so run inline instead
+            for (Runnable each : fChildren) {
+                each.run();
+            }
+            return;
+        }
+
+        List<Future<?>> running = new ArrayList<>();
+        for (Runnable each : fChildren) {
+            running.add(POOL.submit(each));
+        }
+
+        RuntimeException failure = null;
+        for (Future<?> each : running) {
+            try {
+                each.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for theories to finish", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new IllegalStateException(e.getCause());
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static ThreadPoolExecutor newPool() {
+        int threads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        AtomicInteger count = new AtomicInteger();
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads, 60, SECONDS, new LinkedBlockingQueue<Runnable>(),
+                runnable -> new Worker(runnable, "theories-" + count.incrementAndGet()));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static final class Worker extends Thread {
+        Worker(Runnable runnable, String name) {
+            super(runnable, name);
+            setDaemon(true);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+
+/**
+ * A test class whose {@link org.junit.contrib.theories.DataPoints} methods are each invoked at most once, no matter
+ * how many threads ask for their values at the same time.
+ */
+public class DataPointsMemoizingTestClass extends TestClass {
+    private final ConcurrentMap<FrameworkMethod, Memo> fMemos = new ConcurrentHashMap<>();
+
+    public DataPointsMemoizingTestClass(Class<?> klass) {
+        super(klass);
+    }
+
+    public Object invokeDataPointsMethod(FrameworkMethod method) throws Throwable {
+        return fMemos.computeIfAbsent(method, m -> new Memo()).valueOf(method);
+    }
+
+    private static final class Memo {
+        private boolean fDone;
+        private Object fValue;
+        private Throwable fFailure;
+
+        synchronized Object valueOf(FrameworkMethod method) throws Throwable {
+            if (!fDone) {
+                try {
+                    fValue = method.invokeExplosively(null);
+                } catch (Throwable e) {
+                    fFailure = e;
+                }
+                fDone = true;
+            }
+
+            if (fFailure != null) {
+                throw fFailure;
+            }
+            return fValue;
+        }
+    }
+}
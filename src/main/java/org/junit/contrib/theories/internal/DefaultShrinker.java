@@ -0,0 +1,99 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.contrib.theories.ParameterSignature;
+import org.junit.contrib.theories.Shrinker;
+
+/**
+ * Simplifies strings and lists by dropping parts of them, and numbers by moving them toward zero.
+ */
+public class DefaultShrinker extends Shrinker {
+    @Override public List<?> shrink(Object value, ParameterSignature sig) {
+        if (value instanceof String) {
+            return shrinkString((String) value);
+        }
+        if (value instanceof Collection<?>) {
+            return shrinkCollection(new ArrayList<Object>((Collection<?>) value));
+        }
+        if (value instanceof Integer) {
+            return toward((Integer) value, each -> (int) each);
+        }
+        if (value instanceof Long) {
+            return toward((Long) value, each -> each);
+        }
+        if (value instanceof Short) {
+            return toward((Short) value, each -> (short) each);
+        }
+        if (value instanceof Byte) {
+            return toward((Byte) value, each -> (byte) each);
+        }
+        if (value instanceof Double) {
+            double x = (Double) value;
+            return distinct(0.0, x / 2, (double) (long) x);
+        }
+        if (value instanceof Float) {
+            float x = (Float) value;
+            return distinct(0.0f, x / 2, (float) (long) x);
+        }
+        return new ArrayList<>();
+    }
+
+    private static List<String> shrinkString(String value) {
+        int half = value.length() / 2;
+        return distinct("", value.substring(0, half), value.substring(half),
+                value.isEmpty() ? "" : value.substring(1),
+                value.isEmpty() ? "" : value.substring(0, value.length() - 1));
+    }
+
+    private static List<List<Object>> shrinkCollection(final List<Object> value) {
+        final int half = value.size() / 2;
+        // each candidate is copied only when asked for: copying all the lists missing one element up front would
+        // copy the collection once per element, though the shrinking budget may run out long before
+        return new AbstractList<List<Object>>() {
+            @Override public List<Object> get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException(index + " of " + size());
+                }
+                if (index == 0) {
+                    return new ArrayList<>();
+                }
+                if (index == 1) {
+                    return new ArrayList<>(value.subList(0, half));
+                }
+                if (index == 2) {
+                    return new ArrayList<>(value.subList(half, value.size()));
+                }
+                List<Object> dropped = new ArrayList<>(value);
+                dropped.remove(index - 3);
+                return dropped;
+            }
+
+            @Override public int size() {
+                return value.size() + 3;
+            }
+        };
+    }
+
+    private interface Narrowing<T> {
+        T narrow(long value);
+    }
+
+    private static <T> List<T> toward(long value, Narrowing<T> narrowing) {
+        return distinct(narrowing.narrow(0), narrowing.narrow(value / 2), narrowing.narrow(value - Long.signum(value)));
+    }
+
+    @SafeVarargs
+    private static <T> List<T> distinct(T... candidates) {
+        List<T> distinct = new ArrayList<>();
+        for (T each : candidates) {
+            if (!distinct.contains(each)) {
+                distinct.add(each);
+            }
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,86 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.contrib.theories.PotentialAssignment;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * <p>Writes out the combinations of values a theory would be run with, instead of running it, when the system
+ * property {@value #ENABLED_PROPERTY} is {@code true}. Each theory gets a file in the {@code dry-run} subdirectory of
+ * the {@link StateDirectory state directory}, starting with comment lines giving the number of combinations and of
+ * each parameter's values, followed by a line per combination holding the description of each value, separated by
+ * tabs, with tabs, newlines and backslashes escaped.</p>
+ *
+ * <p>Combinations are written as they are enumerated and not kept. Only the descriptions of values are asked for,
+ * so values made by {@code @DataPoint} methods are not made, and no test instances are constructed.</p>
+ */
+public class DryRun implements Closeable {
+    public static final String ENABLED_PROPERTY = "theories.dryRun";
+
+    private final Path fFile;
+    private final Writer fOut;
+    private long fWritten;
+
+    private DryRun(Path file, Writer out) {
+        fFile = file;
+        fOut = out;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * @param theory the theory method, as {@code class#method}
+     * @param parameters the names of the theory's parameters, those of the test class's constructor first
+     * @param combinations the theory's combinations, giving how many values each parameter has
+     * @return where to write the theory's combinations, or {@code null} if this is not a dry run
+     */
+    public static DryRun open(String theory, List<String> parameters, Combinations combinations) throws IOException {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        Path file = StateDirectory.resolve("dry-run", theory + ".tsv");
+        BufferedWriter out = Files.newBufferedWriter(file, UTF_8);
+        out.write(format("# %s: %d combinations%n", theory, combinations.size()));
+        for (int depth = 0; depth < parameters.size(); depth++) {
+            out.write(format("# %s: %d values%n", parameters.get(depth), combinations.potentialsAt(depth).size()));
+        }
+        return new DryRun(file, out);
+    }
+
+    /**
+     * Writes out the given complete assignment. Must be called from one thread at a time.
+     */
+    public void write(Assignments complete) throws IOException {
+        List<PotentialAssignment> assigned = complete.getAssigned();
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < assigned.size(); i++) {
+            line.append(i == 0 ? "" : "\t").append(FailureDatabase.escape(Combinations.describe(assigned.get(i))));
+        }
+        fOut.write(line.append(System.lineSeparator()).toString());
+        ++fWritten;
+    }
+
+    public long getWritten() {
+        return fWritten;
+    }
+
+    public Path getFile() {
+        return fFile;
+    }
+
+    @Override public void close() throws IOException {
+        fOut.close();
+    }
+}
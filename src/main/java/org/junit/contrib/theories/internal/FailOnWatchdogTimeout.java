@@ -0,0 +1,37 @@
+package org.junit.contrib.theories.internal;
+
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestTimedOutException;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Fails a statement that runs for longer than a given number of milliseconds. Unlike JUnit's own timeout, the
+ * statement runs on the calling thread, which is interrupted by the {@link Watchdog} on overrun; statements that
+ * ignore interruption run to completion before the timeout is reported.
+ */
+public class FailOnWatchdogTimeout extends Statement {
+    private final Statement fNext;
+    private final long fMillis;
+
+    public FailOnWatchdogTimeout(Statement next, long millis) {
+        fNext = next;
+        fMillis = millis;
+    }
+
+    @Override public void evaluate() throws Throwable {
+        Watchdog.Watch watch = Watchdog.watch(fMillis);
+        try {
+            fNext.evaluate();
+        } catch (Throwable e) {
+            if (watch.stop()) {
+                throw new TestTimedOutException(fMillis, MILLISECONDS);
+            }
+            throw e;
+        }
+
+        if (watch.stop()) {
+            throw new TestTimedOutException(fMillis, MILLISECONDS);
+        }
+    }
+}
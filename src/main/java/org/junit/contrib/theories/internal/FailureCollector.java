@@ -0,0 +1,133 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.runners.model.MultipleFailureException;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * Gathers the failures of a theory's assignments, grouped by exception type and originating frame, so that they
+ * can be reported together. Only a bounded number of failures are kept in memory; the remainder are written,
+ * one line per failure, to a file in the {@value #DIRECTORY} subdirectory of the {@link StateDirectory state
+ * directory}, replacing what an earlier run of the theory wrote there.
+ */
+public class FailureCollector {
+    public static final String RETAINED_FAILURES_PROPERTY = "theories.maxRetainedFailures";
+    public static final int DEFAULT_RETAINED_FAILURES = 100;
+    public static final String DIRECTORY = "spilled-failures";
+
+    private static final String[] ASSERTION_FRAME_PREFIXES = {
+        "org.junit.Assert", "org.junit.Assume", "org.junit.internal.", "org.hamcrest.", "junit.framework."
+    };
+
+    private final String fTheory;
+    private final String fMethodName;
+    private final int fRetainLimit;
+    private final Map<String, Group> fGroups = new LinkedHashMap<>();
+
+    private int fRetained;
+    private Path fSpillFile;
+    private Writer fSpill;
+
+    public FailureCollector(Class<?> testClass, String methodName) {
+        this(testClass, methodName, Integer.getInteger(RETAINED_FAILURES_PROPERTY, DEFAULT_RETAINED_FAILURES));
+    }
+
+    public FailureCollector(Class<?> testClass, String methodName, int retainLimit) {
+        fTheory = testClass.getName() + "#" + methodName;
+        fMethodName = methodName;
+        fRetainLimit = retainLimit;
+    }
+
+    public synchronized void add(Throwable e, Object... params) throws IOException {
+        String signature = signatureOf(e);
+        Group group = fGroups.get(signature);
+        if (group == null) {
+            group = new Group();
+            fGroups.put(signature, group);
+        }
+
+        if (fRetained < fRetainLimit) {
+            group.retained.add(params.length == 0 ? e : new ParameterizedAssertionError(e, fMethodName, params));
+            ++fRetained;
+        } else {
+            spill(signature, e, params);
+            ++group.spilled;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return fGroups.isEmpty();
+    }
+
+    public synchronized void assertEmpty() throws Exception {
+        if (fSpill != null) {
+            fSpill.close();
+        }
+
+        List<Throwable> failures = new ArrayList<>();
+        for (Map.Entry<String, Group> each : fGroups.entrySet()) {
+            Group group = each.getValue();
+            failures.addAll(group.retained);
+            if (group.spilled > 0) {
+                failures.add(new AssertionError(format("%d more failures of %s in %s, written to %s",
+                        group.spilled, each.getKey(), fMethodName, fSpillFile)));
+            }
+        }
+
+        MultipleFailureException.assertEmpty(failures);
+    }
+
+    private void spill(String signature, Throwable e, Object... params) throws IOException {
+        if (fSpill == null) {
+            fSpillFile = StateDirectory.resolve(DIRECTORY, fTheory + ".failures");
+            fSpill = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(fSpillFile), UTF_8));
+        }
+
+        fSpill.write(FailureDatabase.escape(signature));
+        fSpill.write('\t');
+        fSpill.write(FailureDatabase.escape(params.length == 0 && e instanceof ParameterizedAssertionError
+                ? e.getMessage()
+                : format("%s(%s)", fMethodName, ParameterizedAssertionError.join(", ", params))));
+        fSpill.write('\n');
+    }
+
+    static String signatureOf(Throwable failure) {
+        Throwable e = failure instanceof ParameterizedAssertionError && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+
+        for (StackTraceElement each : e.getStackTrace()) {
+            if (!isAssertionFrame(each)) {
+                return e.getClass().getName() + " at " + each;
+            }
+        }
+
+        return e.getClass().getName();
+    }
+
+    private static boolean isAssertionFrame(StackTraceElement frame) {
+        for (String each : ASSERTION_FRAME_PREFIXES) {
+            if (frame.getClassName().startsWith(each)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Group {
+        final List<Throwable> retained = new ArrayList<>();
+        int spilled;
+    }
+}
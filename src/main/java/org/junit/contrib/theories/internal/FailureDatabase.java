@@ -0,0 +1,186 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.contrib.theories.PotentialAssignment;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * <p>Remembers the assignments of a theory that failed, so that the next run can try them before any others. The
+ * database is kept when the system property {@value #ENABLED_PROPERTY} is {@code true}, in the {@code failures}
+ * subdirectory of the {@link StateDirectory state directory}, one file per theory method.</p>
+ *
+ * <p>Each value of an assignment is recorded by its description, naming the data point source and index it came
+ * from, such as {@code "2" <from INTS[2]>}, rather than by its position among the potential values, so entries
+ * still apply after data points are added or reordered; see {@link Combinations#indexOf(List)}. Entries whose
+ * values can no longer be told apart from the others, and entries whose assignments pass, are dropped.</p>
+ */
+public class FailureDatabase {
+    public static final String ENABLED_PROPERTY = "theories.failureDatabase";
+
+    private static final Pattern SOURCE = Pattern.compile("<from (.*)>$");
+    private static final Pattern SOURCE_INDEX = Pattern.compile("\\[\\d+\\]>$");
+    private static final String SEPARATOR = "\t";
+
+    private final Path fFile;
+    private final Path fLockFile;
+    private final Set<List<String>> fKnown;
+    private final Set<List<String>> fFailed = new LinkedHashSet<>();
+    private final Set<List<String>> fPassed = new HashSet<>();
+    private final Map<Long, List<String>> fReplayed = new HashMap<>();
+
+    private FailureDatabase(Path file, Path lockFile) throws IOException {
+        fFile = file;
+        fLockFile = lockFile;
+        fKnown = read(file);
+    }
+
+    /**
+     * @return the database for the given theory method, or {@code null} if failures are not being remembered
+     */
+    public static FailureDatabase open(String theory) throws IOException {
+        return Boolean.getBoolean(ENABLED_PROPERTY)
+                ? new FailureDatabase(StateDirectory.resolve("failures", theory + ".failures"),
+                        StateDirectory.resolve("locks", theory + ".failures"))
+                : null;
+    }
+
+    public synchronized boolean isEmpty() {
+        return fKnown.isEmpty();
+    }
+
+    /**
+     * @return the numbers of the remembered assignments among the given combinations
+     */
+    public synchronized NavigableSet<Long> locate(Combinations combinations) {
+        NavigableSet<Long> located = new TreeSet<>();
+        for (List<String> each : fKnown) {
+            Long index = combinations.indexOf(each);
+            if (index == null) {
+                fPassed.add(each);
+            } else {
+                located.add(index);
+                fReplayed.put(index, each);
+            }
+        }
+        return located;
+    }
+
+    public void failed(Assignments complete) throws PotentialAssignment.CouldNotGenerateValueException {
+        List<String> descriptions = new ArrayList<>();
+        for (Object each : complete.getArgumentStrings()) {
+            descriptions.add(String.valueOf(each));
+        }
+
+        synchronized (this) {
+            fFailed.add(descriptions);
+        }
+    }
+
+    /**
+     * Records that the assignment with the given number has finished; if it was remembered and did not fail
+     * again, it is forgotten.
+     */
+    public synchronized void finished(long index) {
+        List<String> descriptions = fReplayed.remove(index);
+        if (descriptions != null && !fFailed.contains(descriptions)) {
+            fPassed.add(descriptions);
+        }
+    }
+
+    /**
+     * Writes the database, merging in what other JVMs running the same theory have written since it was read, and
+     * waiting for any of them writing it now.
+     */
+    public synchronized void save() throws IOException {
+        // workers forked for the same theory each save the same file, so the merge is done under a lock, held on
+        // another file because this one is replaced
+        try (FileChannel channel = FileChannel.open(fLockFile, CREATE, WRITE); FileLock lock = channel.lock()) {
+            Set<List<String>> entries = read(fFile);
+            entries.removeAll(fPassed);
+            entries.addAll(fFailed);
+
+            if (entries.isEmpty()) {
+                Files.deleteIfExists(fFile);
+                return;
+            }
+
+            StringBuilder contents = new StringBuilder();
+            for (List<String> each : entries) {
+                for (int i = 0; i < each.size(); i++) {
+                    contents.append(i == 0 ? "" : SEPARATOR).append(escape(each.get(i)));
+                }
+                contents.append('\n');
+            }
+            StateDirectory.write(fFile, contents.toString().getBytes(UTF_8));
+        }
+    }
+
+    private static Set<List<String>> read(Path file) throws IOException {
+        Set<List<String>> entries = new LinkedHashSet<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+
+        for (String line : Files.readAllLines(file, UTF_8)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            List<String> descriptions = new ArrayList<>();
+            for (String each : Arrays.asList(line.split(SEPARATOR, -1))) {
+                descriptions.add(unescape(each));
+            }
+            entries.add(descriptions);
+        }
+        return entries;
+    }
+
+    static String sourceOf(String description) {
+        Matcher source = SOURCE.matcher(description);
+        return source.find() ? source.group(1) : description;
+    }
+
+    /**
+     * @return the given description without the index of its value in its data point source, so
+     * {@code "2" <from INTS[1]>} gives {@code "2" <from INTS>}
+     */
+    static String withoutIndex(String description) {
+        return SOURCE_INDEX.matcher(description).replaceFirst(">");
+    }
+
+    static String escape(String source) {
+        return source.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    static String unescape(String escaped) {
+        StringBuilder source = new StringBuilder(escaped.length());
+        for (int i = 0; i < escaped.length(); i++) {
+            char each = escaped.charAt(i);
+            if (each == '\\' && i + 1 < escaped.length()) {
+                char next = escaped.charAt(++i);
+                source.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                source.append(each);
+            }
+        }
+        return source.toString();
+    }
+}
@@ -0,0 +1,202 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.AssumptionViolatedException;
+
+import static java.lang.String.format;
+import static org.junit.contrib.theories.internal.WorkerProtocol.*;
+
+/**
+ * Runs a theory's assignments in worker JVMs forked from the current one, each worker taking a disjoint slice of
+ * the assignments, and relays their outcomes.
+ */
+public class ForkedTheory {
+    public interface Outcomes {
+        void succeeded();
+
+        void violatedAssumption(AssumptionViolatedException e);
+
+        /**
+         * Handles a failed assignment, or a worker that could not finish its slice. Throwing stops the remaining
+         * workers, and fails the theory.
+         */
+        void failed(Throwable e) throws Throwable;
+    }
+
+    private static final int ACCEPT_POLL_MILLIS = 100;
+
+    private final Class<?> fTestClass;
+    private final String fMethodName;
+    private final int fWorkers;
+    private final Outcomes fOutcomes;
+    private final AtomicReference<Throwable> fFailure = new AtomicReference<>();
+    private final List<Process> fProcesses = new ArrayList<>();
+
+    public ForkedTheory(Class<?> testClass, String methodName, int workers, Outcomes outcomes) {
+        fTestClass = testClass;
+        fMethodName = methodName;
+        fWorkers = workers;
+        fOutcomes = outcomes;
+    }
+
+    public void run() throws Throwable {
+        List<Thread> relays = new ArrayList<>();
+
+        try (ServerSocket server = new ServerSocket(0, fWorkers, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(ACCEPT_POLL_MILLIS);
+
+            // start every worker before waiting for any, so that their JVMs start up side by side
+            List<Process> processes = new ArrayList<>();
+            for (int i = 0; i < fWorkers; i++) {
+                processes.add(fork(i, server.getLocalPort()));
+            }
+
+            boolean[] connected = new boolean[fWorkers];
+            for (int i = 0; i < fWorkers && fFailure.get() == null; i++) {
+                Socket socket = accept(server, processes, connected);
+                if (socket == null) {
+                    break;
+                }
+                // workers connect in whatever order their JVMs come up, so each first names its slice
+                int sliceIndex = new DataInputStream(socket.getInputStream()).readInt();
+                connected[sliceIndex] = true;
+                Process process = processes.get(sliceIndex);
+
+                Thread relay = new Thread(() -> relay(socket, process),
+                        "theories-fork-" + fMethodName + "-" + sliceIndex);
+                relay.setDaemon(true);
+                relay.start();
+                relays.add(relay);
+            }
+
+            for (Thread each : relays) {
+                each.join();
+            }
+        } finally {
+            stopWorkers();
+        }
+
+        Throwable failure = fFailure.get();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return the next worker to connect, or {@code null} if one of those yet to connect has exited
+     */
+    private Socket accept(ServerSocket server, List<Process> processes, boolean[] connected) throws IOException {
+        while (true) {
+            try {
+                return server.accept();
+            } catch (SocketTimeoutException e) {
+                for (int i = 0; i < processes.size(); i++) {
+                    if (!connected[i] && !processes.get(i).isAlive()) {
+                        fail(crashed(processes.get(i), null));
+                        return null;
+                    }
+                }
+            }
+        }
+    }
+
+    private Process fork(int sliceIndex, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        for (Map.Entry<Object, Object> each : System.getProperties().entrySet()) {
+            if (String.valueOf(each.getKey()).startsWith("theories.")) {
+                command.add("-D" + each.getKey() + "=" + each.getValue());
+            }
+        }
+        command.add(ForkedTheoryWorker.class.getName());
+        command.add(fTestClass.getName());
+        command.add(fMethodName);
+        command.add(String.valueOf(sliceIndex));
+        command.add(String.valueOf(fWorkers));
+        command.add(String.valueOf(port));
+
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        synchronized (this) {
+            fProcesses.add(process);
+        }
+        return process;
+    }
+
+    private void relay(Socket socket, Process process) {
+        Object[] running = null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                byte message = in.readByte();
+                switch (message) {
+                    case STARTED:
+                        running = readStrings(in);
+                        break;
+                    case SUCCEEDED:
+                        running = null;
+                        fOutcomes.succeeded();
+                        break;
+                    case VIOLATED_ASSUMPTION:
+                        running = null;
+                        fOutcomes.violatedAssumption(new AssumptionViolatedException(readString(in)));
+                        break;
+                    case FAILED:
+                        running = null;
+                        fOutcomes.failed(readThrowable(in));
+                        break;
+                    case ERROR:
+                        fOutcomes.failed(readThrowable(in));
+                        return;
+                    case DONE:
+                        return;
+                    default:
+                        throw new IOException("unexpected message from worker: " + message);
+                }
+            }
+        } catch (EOFException e) {
+            fail(crashed(process, running));
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    private Throwable crashed(Process process, Object[] running) {
+        String status;
+        try {
+            status = "exited with status " + process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = "stopped responding";
+        }
+
+        AssertionError crash = new AssertionError(format("worker JVM for %s %s", fMethodName, status));
+        return running == null ? crash : new ParameterizedAssertionError(crash, fMethodName, running);
+    }
+
+    private void fail(Throwable e) {
+        if (fFailure.compareAndSet(null, e)) {
+            stopWorkers();
+        }
+    }
+
+    private synchronized void stopWorkers() {
+        for (Process each : fProcesses) {
+            each.destroy();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.junit.AssumptionViolatedException;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+
+import static org.junit.contrib.theories.internal.WorkerProtocol.*;
+
+/**
+ * Runs one slice of a theory's assignments, one at a time, in a JVM forked by {@link ForkedTheory}, and streams
+ * their outcomes back to the parent over a loopback socket.
+ *
+ * <p>Arguments: test class name, theory method name, slice index, slice count, parent port.</p>
+ */
+public final class ForkedTheoryWorker {
+    private ForkedTheoryWorker() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void main(String... args) throws Exception {
+        int sliceIndex = Integer.parseInt(args[2]);
+        int sliceCount = Integer.parseInt(args[3]);
+        int port = Integer.parseInt(args[4]);
+
+        // outcomes are relayed without saying which assignment they belong to, so a crash can be laid to the
+        // assignment last started only while no other is in flight
+        TheoryMonitor.get().setMaxConcurrentAssignments(1);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(sliceIndex);
+            out.flush();
+            run(args[0], args[1], sliceIndex, sliceCount, out);
+            out.flush();
+        }
+
+        System.exit(0);
+    }
+
+    private static void run(String className, String methodName, int sliceIndex, int sliceCount,
+            DataOutputStream out) throws IOException {
+
+        WorkerAnchor anchor = null;
+        try {
+            TestClass testClass = new Theories(Class.forName(className)).getTestClass();
+            anchor = new WorkerAnchor(theoryNamed(testClass, methodName), testClass, sliceIndex, sliceCount, out);
+            anchor.run();
+            anchor.send(DONE);
+        } catch (Throwable e) {
+            if (anchor == null || !anchor.hasSent(e)) {
+                synchronized (out) {
+                    out.writeByte(ERROR);
+                    writeThrowable(out, e);
+                }
+            }
+        }
+    }
+
+    private static FrameworkMethod theoryNamed(TestClass testClass, String methodName) {
+        for (FrameworkMethod each : testClass.getAnnotatedMethods(Theory.class)) {
+            if (each.getName().equals(methodName)) {
+                return each;
+            }
+        }
+        throw new IllegalArgumentException("no theory " + methodName + " in " + testClass.getName());
+    }
+
+    private static class WorkerAnchor extends Theories.TheoryAnchor {
+        private final DataOutputStream fOut;
+        private final String fMethodName;
+        private final boolean fContinueAfterFailure;
+        private volatile Throwable fLastSent;
+
+        WorkerAnchor(FrameworkMethod method, TestClass testClass, int sliceIndex, int sliceCount,
+                DataOutputStream out) {
+
+            super(method, testClass);
+            fOut = out;
+            fMethodName = method.getName();
+            fContinueAfterFailure = method.getAnnotation(Theory.class).collectAllFailures();
+            restrictToSlice(sliceIndex, sliceCount);
+        }
+
+        @Override protected void runWithCompleteAssignment(Assignments complete) throws Throwable {
+            synchronized (fOut) {
+                fOut.writeByte(STARTED);
+                writeStrings(fOut, complete.getArgumentStrings());
+                fOut.flush();
+            }
+            super.runWithCompleteAssignment(complete);
+        }
+
+        @Override protected void handleDataPointSuccess() {
+            try {
+                send(SUCCEEDED);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override protected void handleAssumptionViolation(AssumptionViolatedException e) {
+            try {
+                synchronized (fOut) {
+                    fOut.writeByte(VIOLATED_ASSUMPTION);
+                    writeString(fOut, String.valueOf(e.getMessage()));
+                }
+            } catch (IOException ioe) {
+                throw new IllegalStateException(ioe);
+            }
+        }
+
+        @Override protected void reportParameterizedError(Throwable e, Object... params) throws Throwable {
+            Throwable failure = params.length == 0 ? e : new ParameterizedAssertionError(e, fMethodName, params);
+            synchronized (fOut) {
+                fOut.writeByte(FAILED);
+                writeThrowable(fOut, failure);
+                fOut.flush();
+            }
+            fLastSent = failure;
+
+            if (!fContinueAfterFailure) {
+                throw failure;
+            }
+        }
+
+        void run() throws Throwable {
+            runAssignments();
+        }
+
+        void send(byte message) throws IOException {
+            synchronized (fOut) {
+                fOut.writeByte(message);
+            }
+        }
+
+        boolean hasSent(Throwable e) {
+            return e == fLastSent;
+        }
+    }
+}
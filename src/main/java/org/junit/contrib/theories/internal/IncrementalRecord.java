@@ -0,0 +1,163 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.contrib.theories.PotentialAssignment;
+
+/**
+ * <p>Remembers the values a theory last held for, so that a later run can try only the assignments that include
+ * a value added since. The record is kept when the system property {@value #ENABLED_PROPERTY} is {@code true},
+ * in the {@code incremental} subdirectory of the {@link StateDirectory state directory}, one file per theory
+ * method.</p>
+ *
+ * <p>Values are told apart by their string forms. The record holds a {@link ClassFileDigest digest} of the test
+ * class's methods, other than those supplying data points, and no longer applies once it changes; nor does it
+ * apply once the theory's parameters change. Code outside the test class is not digested.</p>
+ */
+public class IncrementalRecord {
+    public static final String ENABLED_PROPERTY = "theories.incremental";
+
+    private static final String CLASS_DIGEST = "class";
+    private static final String PARAMETERS = "parameters";
+    private static final String VALUES = "values.";
+    private static final String SEPARATOR = "\u0000";
+
+    private final Path fFile;
+    private final String fClassDigest;
+    private final Properties fRecorded;
+
+    private IncrementalRecord(Path file, String classDigest, Properties recorded) {
+        fFile = file;
+        fClassDigest = classDigest;
+        fRecorded = recorded;
+    }
+
+    /**
+     * @return the record for the given theory method, or {@code null} if records are not being kept
+     */
+    public static IncrementalRecord open(String theory, Class<?> testClass, Set<String> dataPointMethods)
+            throws IOException {
+
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+
+        Path file = StateDirectory.resolve("incremental", theory + ".values");
+        Properties recorded = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                recorded.load(in);
+            }
+        }
+        return new IncrementalRecord(file, ClassFileDigest.digest(testClass, dataPointMethods), recorded);
+    }
+
+    /**
+     * @return the values among the given combinations that were not there when the theory last held, or
+     * {@code null} if the record does not apply to them, and every combination should be tried
+     */
+    public Delta deltaOf(Combinations combinations) {
+        int parameters = parameterCount(combinations);
+        if (fClassDigest == null
+                || !fClassDigest.equals(fRecorded.getProperty(CLASS_DIGEST))
+                || !String.valueOf(parameters).equals(fRecorded.getProperty(PARAMETERS))) {
+            return null;
+        }
+
+        Set<PotentialAssignment> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        boolean[] addedFrom = new boolean[parameters + 1];
+        for (int depth = parameters - 1; depth >= 0; depth--) {
+            Set<String> recorded = new HashSet<>(Arrays.asList(
+                    fRecorded.getProperty(VALUES + depth, "").split(SEPARATOR, -1)));
+            for (PotentialAssignment each : combinations.potentialsAt(depth)) {
+                if (!recorded.contains(valueOf(each))) {
+                    added.add(each);
+                    addedFrom[depth] = true;
+                }
+            }
+            addedFrom[depth] |= addedFrom[depth + 1];
+        }
+        return new Delta(added, addedFrom);
+    }
+
+    /**
+     * Records that the theory held for every combination of the given values.
+     */
+    public void save(Combinations combinations) throws IOException {
+        if (fClassDigest == null) {
+            return;
+        }
+
+        int parameters = parameterCount(combinations);
+        Properties record = new Properties();
+        record.setProperty(CLASS_DIGEST, fClassDigest);
+        record.setProperty(PARAMETERS, String.valueOf(parameters));
+        for (int depth = 0; depth < parameters; depth++) {
+            StringBuilder values = new StringBuilder();
+            for (PotentialAssignment each : combinations.potentialsAt(depth)) {
+                values.append(values.length() == 0 ? "" : SEPARATOR).append(valueOf(each));
+            }
+            record.setProperty(VALUES + depth, values.toString());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        record.store(bytes, null);
+        StateDirectory.write(fFile, bytes.toByteArray());
+    }
+
+    private static int parameterCount(Combinations combinations) {
+        int parameters = 0;
+        while (!combinations.potentialsAt(parameters).isEmpty()) {
+            ++parameters;
+        }
+        return parameters;
+    }
+
+    private static String valueOf(PotentialAssignment potential) {
+        String description = Combinations.describe(potential);
+        String source = FailureDatabase.sourceOf(description);
+        return source.equals(description)
+                ? description
+                : description.substring(0, description.length() - source.length() - "<from >".length()).trim();
+    }
+
+    /**
+     * The values added since a theory last held.
+     */
+    public static class Delta {
+        private final Set<PotentialAssignment> fAdded;
+        private final boolean[] fAddedFrom;
+
+        Delta(Set<PotentialAssignment> added, boolean[] addedFrom) {
+            fAdded = added;
+            fAddedFrom = addedFrom;
+        }
+
+        /**
+         * @return whether any of the given assignments, or any potential value of the parameters from the given
+         * depth on, was added
+         */
+        public boolean includesAdded(List<PotentialAssignment> assigned, int depth) {
+            if (depth < fAddedFrom.length && fAddedFrom[depth]) {
+                return true;
+            }
+            for (PotentialAssignment each : assigned) {
+                if (fAdded.contains(each)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
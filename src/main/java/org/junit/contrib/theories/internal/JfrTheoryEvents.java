@@ -0,0 +1,142 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.junit.contrib.theories.ParameterSignature;
+import org.junit.contrib.theories.PotentialAssignment;
+import org.junit.contrib.theories.TheoryMetrics;
+
+/**
+ * The {@link TheoryEvents} of a JVM with Flight Recorder; loaded reflectively, so that the runner does not need
+ * {@code jdk.jfr} to run.
+ */
+final class JfrTheoryEvents extends TheoryEvents {
+    // asked whether they are enabled before an event is allocated, so that a JVM not recording allocates nothing
+    private static final EventType THEORIES = EventType.getEventType(TheoryEvent.class);
+    private static final EventType SUPPLIERS = EventType.getEventType(SupplierEvent.class);
+    private static final EventType ASSIGNMENTS = EventType.getEventType(AssignmentEvent.class);
+
+    private final int fSampleInterval =
+            Math.max(1, Integer.getInteger(SAMPLE_INTERVAL_PROPERTY, DEFAULT_SAMPLE_INTERVAL));
+    private final AtomicLong fAssignments = new AtomicLong();
+
+    @Override public TheorySpan theoryStarted(Class<?> testClass, String method) {
+        if (!THEORIES.isEnabled()) {
+            return NO_THEORY;
+        }
+
+        TheoryEvent event = new TheoryEvent();
+
+        event.testClass = testClass.getName();
+        event.method = method;
+        event.begin();
+        return event;
+    }
+
+    @Override public SupplierSpan supplierStarted(Class<?> testClass, ParameterSignature parameter) {
+        if (!SUPPLIERS.isEnabled()) {
+            return NO_SUPPLIER;
+        }
+
+        SupplierEvent event = new SupplierEvent();
+
+        event.testClass = testClass.getName();
+        event.parameter = parameter.getName();
+        event.parameterType = parameter.getType().getTypeName();
+        event.begin();
+        return event;
+    }
+
+    @Override public AssignmentSpan assignmentStarted(Class<?> testClass, String method) {
+        if (!ASSIGNMENTS.isEnabled() || fAssignments.getAndIncrement() % fSampleInterval != 0) {
+            return NO_ASSIGNMENT;
+        }
+
+        AssignmentEvent event = new AssignmentEvent();
+
+        event.testClass = testClass.getName();
+        event.method = method;
+        event.begin();
+        return event;
+    }
+
+    @Name("org.junit.contrib.theories.Theory")
+    @Label("Theory")
+    @Category({ "JUnit", "Theories" })
+    @Description("A theory running all its assignments")
+    @StackTrace(false)
+    static final class TheoryEvent extends Event implements TheorySpan {
+        @Label("Test Class") String testClass;
+        @Label("Method") String method;
+        @Label("Generated") long generated;
+        @Label("Executed") long executed;
+        @Label("Succeeded") long succeeded;
+        @Label("Assumption Violations") long assumptionViolations;
+        @Label("Failed") long failed;
+
+        @Override public void end(TheoryMetrics metrics) {
+            end();
+            if (shouldCommit()) {
+                generated = metrics.getGenerated();
+                executed = metrics.getExecuted();
+                succeeded = metrics.getSucceeded();
+                assumptionViolations = metrics.getAssumptionViolations();
+                failed = metrics.getFailed();
+                commit();
+            }
+        }
+    }
+
+    @Name("org.junit.contrib.theories.Supplier")
+    @Label("Theory Parameter Supplier")
+    @Category({ "JUnit", "Theories" })
+    @Description("A parameter supplier listing the potential values of a theory parameter")
+    static final class SupplierEvent extends Event implements SupplierSpan {
+        @Label("Test Class") String testClass;
+        @Label("Parameter") String parameter;
+        @Label("Parameter Type") String parameterType;
+        @Label("Supplier") Class<?> supplier;
+        @Label("Values") int values;
+
+        @Override public void end(Class<?> supplier, int values) {
+            end();
+            if (shouldCommit()) {
+                this.supplier = supplier;
+                this.values = values;
+                commit();
+            }
+        }
+    }
+
+    @Name("org.junit.contrib.theories.Assignment")
+    @Label("Theory Assignment")
+    @Category({ "JUnit", "Theories" })
+    @Description("A sample of the complete assignments a theory is run with")
+    @StackTrace(false)
+    static final class AssignmentEvent extends Event implements AssignmentSpan {
+        @Label("Test Class") String testClass;
+        @Label("Method") String method;
+        @Label("Arguments") String arguments;
+        @Label("Outcome") String outcome;
+
+        @Override public void end(Assignments complete, String outcome) {
+            end();
+            if (shouldCommit()) {
+                try {
+                    arguments = ParameterizedAssertionError.join(", ", complete.getArgumentStrings());
+                } catch (PotentialAssignment.CouldNotGenerateValueException e) {
+                    arguments = "[could not generate value: " + e.getCause() + "]";
+                }
+                this.outcome = outcome;
+                commit();
+            }
+        }
+    }
+}
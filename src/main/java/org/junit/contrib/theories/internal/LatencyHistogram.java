@@ -0,0 +1,77 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Counts durations, in nanoseconds, in a fixed number of buckets, whatever their range: durations below
+ * {@value #LINEAR} nanoseconds have a bucket each, and above that each power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so a percentile is off by less than one part in {@value #SUB_BUCKETS}, as in an
+ * HDR histogram.</p>
+ *
+ * <p>Recording is safe from several threads at once and takes no locks.</p>
+ */
+public class LatencyHistogram {
+    static final int SUB_BUCKETS = 64;
+    static final int LINEAR = 2 * SUB_BUCKETS;
+
+    private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray fCounts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong fTotal = new AtomicLong();
+    private final AtomicLong fMax = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        fCounts.incrementAndGet(indexOf(value));
+        fTotal.incrementAndGet();
+        fMax.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return fTotal.get();
+    }
+
+    public long max() {
+        return fMax.get();
+    }
+
+    /**
+     * @return the duration that the given percentage of durations recorded do not exceed, to within the precision of
+     * a bucket, or 0 if none were recorded
+     */
+    public long percentile(double percentage) {
+        long total = fTotal.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        long wanted = Math.max(1, (long) Math.ceil(percentage / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += fCounts.get(i);
+            if (seen >= wanted) {
+                return Math.min(highestIn(i), max());
+            }
+        }
+        return max();
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long highestIn(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,130 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.junit.contrib.theories.PotentialAssignment;
+
+import static java.lang.String.format;
+
+/**
+ * <p>Records how long each complete assignment of a theory takes, in a {@link LatencyHistogram}, and remembers the
+ * slowest {@value #DEFAULT_SLOWEST} (or the number given by the system property {@value #SLOWEST_PROPERTY}),
+ * described by their arguments. Reports are made when the system property {@value #ENABLED_PROPERTY} is
+ * {@code true}, and {@link Reports kept} in the {@value #DIRECTORY} subdirectory of the state directory when the
+ * theory finishes.</p>
+ *
+ * <p>An assignment's arguments are only described when it is among the slowest so far, so recording the many fast
+ * ones costs no more than counting them.</p>
+ */
+public class LatencyReport {
+    public static final String ENABLED_PROPERTY = "theories.latencyReport";
+    public static final String SLOWEST_PROPERTY = "theories.slowestAssignments";
+    public static final int DEFAULT_SLOWEST = 5;
+    public static final String DIRECTORY = "latency";
+
+    private static final Comparator<Slow> FASTEST_FIRST = Comparator.comparingLong(slow -> slow.nanos);
+
+    private final LatencyHistogram fHistogram = new LatencyHistogram();
+    private final int fSlowestKept;
+    private final PriorityQueue<Slow> fSlowest = new PriorityQueue<>(FASTEST_FIRST);
+    private volatile long fSlowEnough = -1;
+
+    public LatencyReport(int slowestKept) {
+        fSlowestKept = slowestKept;
+    }
+
+    /**
+     * @return a report to record into, or {@code null} if reports are not being made
+     */
+    public static LatencyReport open() {
+        return Boolean.getBoolean(ENABLED_PROPERTY)
+                ? new LatencyReport(Math.max(0, Integer.getInteger(SLOWEST_PROPERTY, DEFAULT_SLOWEST)))
+                : null;
+    }
+
+    public void record(long nanos, Assignments complete) {
+        fHistogram.record(nanos);
+        if (fSlowestKept == 0 || nanos <= fSlowEnough) {
+            return;
+        }
+
+        Slow slow = new Slow(nanos, describe(complete));
+        synchronized (fSlowest) {
+            fSlowest.add(slow);
+            if (fSlowest.size() > fSlowestKept) {
+                fSlowest.poll();
+            }
+            if (fSlowest.size() == fSlowestKept) {
+                fSlowEnough = fSlowest.peek().nanos;
+            }
+        }
+    }
+
+    public LatencyHistogram getHistogram() {
+        return fHistogram;
+    }
+
+    /**
+     * @return the descriptions of the slowest assignments, slowest first, each preceded by its duration
+     */
+    public List<String> slowest() {
+        List<Slow> slowest;
+        synchronized (fSlowest) {
+            slowest = new ArrayList<>(fSlowest);
+        }
+        slowest.sort(Collections.reverseOrder(FASTEST_FIRST));
+
+        List<String> descriptions = new ArrayList<>();
+        for (Slow each : slowest) {
+            descriptions.add(millis(each.nanos) + " " + each.arguments);
+        }
+        return descriptions;
+    }
+
+    /**
+     * @return the report of the given theory method, as lines of text
+     */
+    public String report(String theory) {
+        StringBuilder report = new StringBuilder(format("%s: %d assignments, p50 %s, p99 %s, max %s%n", theory,
+                fHistogram.count(), millis(fHistogram.percentile(50)), millis(fHistogram.percentile(99)),
+                millis(fHistogram.max())));
+        for (String each : slowest()) {
+            report.append("    ").append(each).append(format("%n"));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Keeps the report of the given theory method, as {@code class#method}.
+     */
+    public void save(String theory) throws IOException {
+        Reports.write(DIRECTORY, theory, report(theory));
+    }
+
+    private static String describe(Assignments complete) {
+        try {
+            return "(" + ParameterizedAssertionError.join(", ", complete.getArgumentStrings()) + ")";
+        } catch (PotentialAssignment.CouldNotGenerateValueException e) {
+            return "[could not generate value: " + e.getCause() + "]";
+        }
+    }
+
+    private static String millis(long nanos) {
+        return format("%.3f ms", nanos / 1e6);
+    }
+
+    private static class Slow {
+        final long nanos;
+        final String arguments;
+
+        Slow(long nanos, String arguments) {
+            this.nanos = nanos;
+            this.arguments = arguments;
+        }
+    }
+}
@@ -7,9 +7,31 @@ import java.util.Iterator;
 public class ParameterizedAssertionError extends AssertionError {
     private static final long serialVersionUID = 1L;
 
+    private final String fReproductionToken;
+
     public ParameterizedAssertionError(Throwable targetException, String methodName, Object... params) {
-        super(String.format("%s(%s)", methodName, join(", ", params)));
+        this(targetException, methodName, null, params);
+    }
+
+    /**
+     * @param reproduction the token naming the failing assignment, which the message tells how to run alone
+     */
+    public ParameterizedAssertionError(Throwable targetException, String methodName, ReproductionToken reproduction,
+            Object... params) {
+
+        super(String.format("%s(%s)", methodName, join(", ", params))
+                + (reproduction == null
+                        ? ""
+                        : "; run alone with -D" + ReproductionToken.PROPERTY + "=" + reproduction));
         initCause(targetException);
+        fReproductionToken = reproduction == null ? null : reproduction.toString();
+    }
+
+    /**
+     * @return the token naming the failing assignment, or {@code null} if there is none
+     */
+    public String getReproductionToken() {
+        return fReproductionToken;
     }
 
     @Override public boolean equals(Object o) {
@@ -0,0 +1,84 @@
+package org.junit.contrib.theories.internal;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.contrib.theories.AfterPrefix;
+import org.junit.contrib.theories.BeforePrefix;
+import org.junit.contrib.theories.ParameterSignature;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+
+import static org.junit.contrib.theories.ParameterSignature.*;
+
+/**
+ * The {@link BeforePrefix} and {@link AfterPrefix} methods of a test class that apply to a given theory, indexed
+ * by the number of leading parameters they take.
+ */
+public class PrefixFixtures {
+    private final List<List<FrameworkMethod>> fBefores;
+    private final List<List<FrameworkMethod>> fAfters;
+
+    public PrefixFixtures(TestClass testClass, Method theory) {
+        List<ParameterSignature> signatures = new ArrayList<>(signatures(testClass.getOnlyConstructor()));
+        signatures.addAll(signatures(theory));
+
+        fBefores = byPrefixLength(testClass, BeforePrefix.class, signatures);
+        fAfters = byPrefixLength(testClass, AfterPrefix.class, signatures);
+    }
+
+    public boolean isEmpty() {
+        return fBefores.isEmpty() && fAfters.isEmpty();
+    }
+
+    /**
+     * @return the number of leading parameters taken by the fixture taking most, or 0 if there are none
+     */
+    public int longestPrefix() {
+        return Math.max(Math.max(fBefores.size(), fAfters.size()) - 1, 0);
+    }
+
+    public List<FrameworkMethod> befores(int prefixLength) {
+        return prefixLength < fBefores.size() ? fBefores.get(prefixLength) : Collections.<FrameworkMethod>emptyList();
+    }
+
+    public List<FrameworkMethod> afters(int prefixLength) {
+        return prefixLength < fAfters.size() ? fAfters.get(prefixLength) : Collections.<FrameworkMethod>emptyList();
+    }
+
+    private static List<List<FrameworkMethod>> byPrefixLength(TestClass testClass,
+            Class<? extends Annotation> annotation, List<ParameterSignature> theorySignatures) {
+
+        List<List<FrameworkMethod>> fixtures = new ArrayList<>();
+
+        for (FrameworkMethod each : testClass.getAnnotatedMethods(annotation)) {
+            List<ParameterSignature> fixtureSignatures = signatures(each.getMethod());
+            if (!accepts(fixtureSignatures, theorySignatures)) {
+                continue;
+            }
+
+            int length = fixtureSignatures.size();
+            while (fixtures.size() <= length) {
+                fixtures.add(new ArrayList<FrameworkMethod>());
+            }
+            fixtures.get(length).add(each);
+        }
+
+        return fixtures;
+    }
+
+    private static boolean accepts(List<ParameterSignature> fixture, List<ParameterSignature> theory) {
+        if (fixture.isEmpty() || fixture.size() > theory.size()) {
+            return false;
+        }
+        for (int i = 0; i < fixture.size(); i++) {
+            if (!fixture.get(i).canAcceptType(theory.get(i).getType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * Keeps the reports the runner makes on request, such as {@link LatencyReport latency reports}, as files in a
+ * subdirectory of the {@link StateDirectory state directory}, rather than mixing them into the output of the tests.
+ * They are also printed to standard error when the system property {@value #STANDARD_ERROR_PROPERTY} is
+ * {@code true}.
+ */
+public final class Reports {
+    public static final String STANDARD_ERROR_PROPERTY = "theories.reportsToStandardError";
+
+    private Reports() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Writes the given report about the given subject, such as a theory method as {@code class#method}, to a file
+     * named after it in the given subdirectory, replacing any earlier report about it.
+     */
+    public static void write(String subdirectory, String subject, String report) throws IOException {
+        StateDirectory.write(StateDirectory.resolve(subdirectory, subject + ".txt"), report.getBytes(UTF_8));
+        if (Boolean.getBoolean(STANDARD_ERROR_PROPERTY)) {
+            System.err.print(report);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * <p>Names a single assignment of a theory, compactly enough to be passed on a command line: the theory method, and
+ * for each value the data point source and index it came from, such as {@code INTS[2]}, or its whole description,
+ * such as {@code "2" <from INTS[2]>}, only where the source and index alone would not tell it apart from the
+ * parameter's other potential values. A failing assignment's {@link ParameterizedAssertionError} carries its token,
+ * unless its values cannot be told apart from others among the theory's combinations.</p>
+ *
+ * <p>When the system property {@value #PROPERTY} holds a token, the {@link org.junit.contrib.theories.Theories}
+ * runner ignores every method but the theory it names, and runs that theory for the named assignment alone, found
+ * by number among the theory's combinations rather than by enumerating those before it.</p>
+ */
+public final class ReproductionToken {
+    public static final String PROPERTY = "theories.reproduce";
+
+    private static final String SEPARATOR = "\t";
+
+    private final String fTheory;
+    private final List<String> fNames;
+
+    private ReproductionToken(String theory, List<String> names) {
+        fTheory = theory;
+        fNames = names;
+    }
+
+    /**
+     * @param theory the theory method, as {@code class#method}
+     * @param argumentStrings the descriptions of the values of a complete assignment, as given by
+     * {@link Assignments#getArgumentStrings()}
+     * @param combinations the theory's combinations, among which the assignment is to be found
+     * @throws IllegalArgumentException if none of the combinations, or more than one, has the described values
+     */
+    public static ReproductionToken of(String theory, Object[] argumentStrings, Combinations combinations) {
+        List<String> descriptions = new ArrayList<>();
+        for (Object each : argumentStrings) {
+            descriptions.add(String.valueOf(each));
+        }
+        ReproductionToken token = new ReproductionToken(theory, combinations.namesOf(descriptions));
+        token.locate(combinations);
+        return token;
+    }
+
+    /**
+     * @return the token given by the system property {@value #PROPERTY}, or {@code null} if there is none
+     */
+    public static ReproductionToken fromSystemProperty() {
+        String token = System.getProperty(PROPERTY);
+        return token == null || token.trim().isEmpty() ? null : parse(token.trim());
+    }
+
+    public static ReproductionToken parse(String token) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(format("%s is not a reproduction token: %s", token, e.getMessage()));
+        }
+
+        List<String> parts = new ArrayList<>();
+        for (String each : Arrays.asList(decoded.split(SEPARATOR, -1))) {
+            parts.add(FailureDatabase.unescape(each));
+        }
+        if (!parts.get(0).contains("#")) {
+            throw new IllegalArgumentException(format("%s is not a reproduction token", token));
+        }
+        return new ReproductionToken(parts.get(0), parts.subList(1, parts.size()));
+    }
+
+    /**
+     * @return whether this token names an assignment of the given theory method, as {@code class#method}
+     */
+    public boolean names(String theory) {
+        return fTheory.equals(theory);
+    }
+
+    /**
+     * @return the number of the named assignment among the given combinations
+     * @throws IllegalArgumentException if none of them, or more than one, has the named values
+     */
+    public long locate(Combinations combinations) {
+        Long index = combinations.indexOfNames(fNames);
+        if (index == null) {
+            throw new IllegalArgumentException(format(
+                    "%s names no single assignment of %s with the values %s", PROPERTY, fTheory, fNames));
+        }
+        return index;
+    }
+
+    @Override public String toString() {
+        StringBuilder decoded = new StringBuilder(FailureDatabase.escape(fTheory));
+        for (String each : fNames) {
+            decoded.append(SEPARATOR).append(FailureDatabase.escape(each));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.toString().getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,277 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.contrib.theories.PotentialAssignment;
+
+import static java.lang.String.format;
+
+/**
+ * <p>Measures the bytes each complete assignment of a theory allocates, and the CPU time it uses, on the thread
+ * running it, and adds them up for the theory and for each value of each argument, told apart by description rather
+ * than by identity, so values supplied afresh are counted together. Accounting is done when the system
+ * property {@value #ENABLED_PROPERTY} is {@code true} and the JVM can measure allocation per thread, and its report
+ * is {@link Reports kept} in the {@value #DIRECTORY} subdirectory of the state directory when the theory
+ * finishes.</p>
+ *
+ * <p>The report lists the values whose assignments allocated most, and the assignments that allocated more than
+ * {@value #DEFAULT_OUTLIER_FACTOR} times (or the factor given by the system property
+ * {@value #OUTLIER_FACTOR_PROPERTY}) the theory's median. Allocation by other threads, such as those an assignment
+ * hands work to, is not counted, nor are assignments run on threads the JVM cannot measure.</p>
+ */
+public class ResourceAccounting {
+    public static final String ENABLED_PROPERTY = "theories.resourceAccounting";
+    public static final String OUTLIER_FACTOR_PROPERTY = "theories.allocationOutlierFactor";
+    public static final int DEFAULT_OUTLIER_FACTOR = 10;
+    public static final String DIRECTORY = "resources";
+
+    private static final int HEAVIEST_KEPT = 5;
+    private static final Comparator<Heavy> LIGHTEST_FIRST = Comparator.comparingLong(heavy -> heavy.bytes);
+
+    private final com.sun.management.ThreadMXBean fThreads;
+    private final int fOutlierFactor;
+    private final LatencyHistogram fAllocations = new LatencyHistogram();
+    private final LongAdder fBytes = new LongAdder();
+    private final LongAdder fCpuNanos = new LongAdder();
+    private final ConcurrentMap<Value, Totals> fByValue = new ConcurrentHashMap<>();
+    private final PriorityQueue<Heavy> fHeaviest = new PriorityQueue<>(LIGHTEST_FIRST);
+    private volatile long fHeavyEnough = -1;
+
+    ResourceAccounting(com.sun.management.ThreadMXBean threads, int outlierFactor) {
+        fThreads = threads;
+        fOutlierFactor = outlierFactor;
+    }
+
+    /**
+     * @return accounting to record into, or {@code null} if it is not being done
+     */
+    public static ResourceAccounting open() {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean measured = (com.sun.management.ThreadMXBean) threads;
+        if (!measured.isThreadAllocatedMemorySupported() || !measured.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        return new ResourceAccounting(measured, Integer.getInteger(OUTLIER_FACTOR_PROPERTY, DEFAULT_OUTLIER_FACTOR));
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or -1 if they cannot be measured
+     */
+    public long allocatedBytes() {
+        try {
+            return fThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the CPU time used so far by the current thread, or -1 if it cannot be measured
+     */
+    public long cpuNanos() {
+        try {
+            return fThreads.isCurrentThreadCpuTimeSupported() ? fThreads.getCurrentThreadCpuTime() : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Records what the given assignment used, given the current thread's allocation and CPU time when it started.
+     */
+    public void record(Assignments complete, long startBytes, long startCpuNanos) {
+        long endBytes = allocatedBytes();
+        long endCpuNanos = cpuNanos();
+        if (startBytes < 0 || endBytes < 0) {
+            return;
+        }
+
+        long bytes = endBytes - startBytes;
+        long cpuNanos = startCpuNanos < 0 || endCpuNanos < 0 ? 0 : endCpuNanos - startCpuNanos;
+        fAllocations.record(bytes);
+        fBytes.add(bytes);
+        fCpuNanos.add(cpuNanos);
+        List<PotentialAssignment> assigned = complete.getAssigned();
+        for (int i = 0; i < assigned.size(); i++) {
+            fByValue.computeIfAbsent(new Value(i, Combinations.describe(assigned.get(i))), value -> new Totals())
+                    .add(bytes, cpuNanos);
+        }
+
+        if (bytes > fHeavyEnough) {
+            keepIfHeaviest(new Heavy(bytes, describe(complete)));
+        }
+    }
+
+    private void keepIfHeaviest(Heavy heavy) {
+        synchronized (fHeaviest) {
+            fHeaviest.add(heavy);
+            if (fHeaviest.size() > HEAVIEST_KEPT) {
+                fHeaviest.poll();
+            }
+            if (fHeaviest.size() == HEAVIEST_KEPT) {
+                fHeavyEnough = fHeaviest.peek().bytes;
+            }
+        }
+    }
+
+    public long getAssignments() {
+        return fAllocations.count();
+    }
+
+    public long getBytes() {
+        return fBytes.sum();
+    }
+
+    public long getCpuNanos() {
+        return fCpuNanos.sum();
+    }
+
+    public long getMedianBytes() {
+        return fAllocations.percentile(50);
+    }
+
+    /**
+     * @return the total bytes allocated by the assignments giving each argument each value, described by the value
+     * and the argument's position, most first
+     */
+    public Map<String, Long> bytesByValue() {
+        Map<String, Long> bytes = new LinkedHashMap<>();
+        for (Map.Entry<Value, Totals> each : fByValue.entrySet()) {
+            bytes.put(each.getKey().toString(), each.getValue().bytes.sum());
+        }
+
+        List<Map.Entry<String, Long>> mostFirst = new ArrayList<>(bytes.entrySet());
+        mostFirst.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> each : mostFirst) {
+            sorted.put(each.getKey(), each.getValue());
+        }
+        return sorted;
+    }
+
+    /**
+     * @return the descriptions of the assignments that allocated more than the outlier factor times the median,
+     * heaviest first, each preceded by the bytes it allocated
+     */
+    public List<String> outliers() {
+        List<Heavy> heaviest;
+        synchronized (fHeaviest) {
+            heaviest = new ArrayList<>(fHeaviest);
+        }
+        heaviest.sort(LIGHTEST_FIRST.reversed());
+
+        long threshold = (long) fOutlierFactor * Math.max(1, getMedianBytes());
+        List<String> outliers = new ArrayList<>();
+        for (Heavy each : heaviest) {
+            if (each.bytes > threshold) {
+                outliers.add(bytes(each.bytes) + " " + each.arguments);
+            }
+        }
+        return outliers;
+    }
+
+    /**
+     * @return the report of the given theory method, as lines of text
+     */
+    public String report(String theory) {
+        StringBuilder report = new StringBuilder(format(
+                "%s: %d assignments allocated %s (median %s), used %.3f ms CPU%n",
+                theory, getAssignments(), bytes(getBytes()), bytes(getMedianBytes()), getCpuNanos() / 1e6));
+
+        int listed = 0;
+        for (Map.Entry<String, Long> each : bytesByValue().entrySet()) {
+            if (listed++ == HEAVIEST_KEPT) {
+                break;
+            }
+            report.append(format("    %s allocated by assignments of %s%n", bytes(each.getValue()), each.getKey()));
+        }
+        for (String each : outliers()) {
+            report.append(format("    more than %dx the median: %s%n", fOutlierFactor, each));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Keeps the report of the given theory method, as {@code class#method}.
+     */
+    public void save(String theory) throws IOException {
+        Reports.write(DIRECTORY, theory, report(theory));
+    }
+
+    private static String describe(Assignments complete) {
+        try {
+            return "(" + ParameterizedAssertionError.join(", ", complete.getArgumentStrings()) + ")";
+        } catch (PotentialAssignment.CouldNotGenerateValueException e) {
+            return "[could not generate value: " + e.getCause() + "]";
+        }
+    }
+
+    private static String bytes(long bytes) {
+        return bytes < 1024 ? bytes + " B" : format("%.1f KB", bytes / 1024.0);
+    }
+
+    /**
+     * A value given to the argument at a position, whichever supplier call produced it.
+     */
+    private static class Value {
+        final int position;
+        final String description;
+
+        Value(int position, String description) {
+            this.position = position;
+            this.description = description;
+        }
+
+        @Override public boolean equals(Object other) {
+            return other instanceof Value
+                    && position == ((Value) other).position
+                    && description.equals(((Value) other).description);
+        }
+
+        @Override public int hashCode() {
+            return 31 * position + description.hashCode();
+        }
+
+        @Override public String toString() {
+            return description + " as argument " + (position + 1);
+        }
+    }
+
+    private static class Totals {
+        final LongAdder bytes = new LongAdder();
+        final LongAdder cpuNanos = new LongAdder();
+
+        void add(long bytes, long cpuNanos) {
+            this.bytes.add(bytes);
+            this.cpuNanos.add(cpuNanos);
+        }
+    }
+
+    private static class Heavy {
+        final long bytes;
+        final String arguments;
+
+        Heavy(long bytes, String arguments) {
+            this.bytes = bytes;
+            this.arguments = arguments;
+        }
+    }
+}
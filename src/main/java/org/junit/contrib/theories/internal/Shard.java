@@ -0,0 +1,128 @@
+package org.junit.contrib.theories.internal;
+
+import static java.lang.String.format;
+
+/**
+ * <p>Selects one of several disjoint shares of a theory's assignments, numbered from zero in order of enumeration,
+ * so that a theory can be split over several JVMs or machines.</p>
+ *
+ * <p>The system property {@value #SHARD_PROPERTY}, of the form <code><em>k</em>/<em>n</em></code> with
+ * <code>1 &lt;= <em>k</em> &lt;= <em>n</em></code>, selects the <em>k</em>th of <em>n</em> shares. With
+ * {@value #SHARD_MODE_PROPERTY} set to {@code modulo}, the default, a share holds every <em>n</em>th assignment;
+ * set to {@code range}, it holds a contiguous range of them. Numbering is only stable if data points are supplied
+ * in the same order in every JVM.</p>
+ */
+public final class Shard {
+    public static final String SHARD_PROPERTY = "theories.shard";
+    public static final String SHARD_MODE_PROPERTY = "theories.shardMode";
+
+    public enum Mode {
+        MODULO, RANGE
+    }
+
+    private static final Shard ALL = new Shard(0, 1, Mode.MODULO);
+
+    private final int fIndex;
+    private final int fCount;
+    private final Mode fMode;
+
+    public Shard(int index, int count, Mode mode) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException(format("no shard %d of %d", index, count));
+        }
+
+        fIndex = index;
+        fCount = count;
+        fMode = mode;
+    }
+
+    public static Shard all() {
+        return ALL;
+    }
+
+    public static Shard fromSystemProperties() {
+        String shard = System.getProperty(SHARD_PROPERTY);
+        if (shard == null) {
+            return ALL;
+        }
+
+        String[] parts = shard.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException(format("%s should be of the form k/n, was %s", SHARD_PROPERTY, shard));
+        }
+        String mode = System.getProperty(SHARD_MODE_PROPERTY, Mode.MODULO.name());
+
+        return new Shard(
+                Integer.parseInt(parts[0].trim()) - 1,
+                Integer.parseInt(parts[1].trim()),
+                Mode.valueOf(mode.trim().toUpperCase()));
+    }
+
+    public boolean isAll() {
+        return fCount == 1;
+    }
+
+    /**
+     * @return whether any of the assignments numbered from {@code start} (inclusive) to {@code end} (exclusive),
+     * out of {@code total}, belong to this shard
+     */
+    public boolean selectsAnyOf(long start, long end, long total) {
+        if (start >= end) {
+            return false;
+        }
+        if (fMode == Mode.RANGE) {
+            return start < rangeEnd(total) && end > rangeStart(total);
+        }
+
+        return firstFrom(start) < end;
+    }
+
+    /**
+     * @return whether this shard holds every <em>n</em>th assignment of several shares, so that each can be found
+     * from the one before without enumerating those between
+     */
+    public boolean isStrided() {
+        return fMode == Mode.MODULO && !isAll();
+    }
+
+    /**
+     * @return the number of the first assignment of this strided shard numbered {@code ordinal} or later; the
+     * next is that number plus {@link #getCount()}
+     */
+    public long firstFrom(long ordinal) {
+        return ordinal + Math.floorMod(fIndex - ordinal, (long) fCount);
+    }
+
+    public int getCount() {
+        return fCount;
+    }
+
+    public boolean selects(long ordinal, long total) {
+        return selectsAnyOf(ordinal, ordinal + 1, total);
+    }
+
+    /**
+     * @return the position of the given assignment, which belongs to this shard, among the assignments of this
+     * shard
+     */
+    public long rank(long ordinal, long total) {
+        return fMode == Mode.RANGE ? ordinal - rangeStart(total) : ordinal / fCount;
+    }
+
+    private long rangeStart(long total) {
+        return share(total, fIndex);
+    }
+
+    private long rangeEnd(long total) {
+        return share(total, fIndex + 1);
+    }
+
+    private long share(long total, int index) {
+        // total * index / count, without overflowing for large totals
+        return total / fCount * index + total % fCount * index / fCount;
+    }
+
+    @Override public String toString() {
+        return format("%d/%d (%s)", fIndex + 1, fCount, fMode.name().toLowerCase());
+    }
+}
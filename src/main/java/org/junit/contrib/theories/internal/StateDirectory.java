@@ -0,0 +1,55 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.*;
+
+/**
+ * Locates the files the runner keeps between runs, under the directory named by the system property
+ * {@value #DIRECTORY_PROPERTY}, or {@value #DEFAULT_DIRECTORY} if it is not set.
+ */
+public final class StateDirectory {
+    public static final String DIRECTORY_PROPERTY = "theories.dir";
+    public static final String DEFAULT_DIRECTORY = "target/theories";
+
+    private StateDirectory() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the path of the given file, in the given subdirectory of the state directory, which is created if
+     * need be
+     */
+    public static Path resolve(String subdirectory, String fileName) throws IOException {
+        Path directory = new File(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), subdirectory).toPath();
+        Files.createDirectories(directory);
+        return directory.resolve(safeFileName(fileName));
+    }
+
+    /**
+     * Replaces the contents of the given file with the given bytes, so that readers never see a partly written
+     * file.
+     */
+    public static void write(Path file, byte[] contents) throws IOException {
+        Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, contents);
+            Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static String safeFileName(String name) {
+        StringBuilder safe = new StringBuilder(name.length());
+        for (char each : name.toCharArray()) {
+            safe.append(Character.isLetterOrDigit(each) || each == '.' || each == '-' || each == '_' || each == '#'
+                    ? each
+                    : '_');
+        }
+        return safe.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.runners.model.TestClass;
+
+import static java.lang.String.format;
+
+/**
+ * <p>Counts, for each source of data points of a test class, how often it was asked for values, how long that took
+ * and how many values it produced. The sources are the class's {@code @DataPoint} and {@code @DataPoints} fields and
+ * methods, and the {@link org.junit.contrib.theories.ParameterSupplier}s named by
+ * {@link org.junit.contrib.theories.ParametersSuppliedBy}. A {@code @DataPoint} method is counted each time its value
+ * is generated, rather than when it is listed, and counted as having produced nothing when it throws.</p>
+ *
+ * <p>Profiling is done when the system property {@value #ENABLED_PROPERTY} is {@code true}, and the profile is
+ * {@link Reports kept} in the {@value #DIRECTORY} subdirectory of the state directory, costliest source first, once
+ * the {@link org.junit.contrib.theories.Theories} runner has run the whole class. Values supplied in
+ * {@link org.junit.contrib.theories.Theory#forks() forked} workers are not counted.</p>
+ */
+public class SupplierProfile {
+    public static final String ENABLED_PROPERTY = "theories.supplierProfile";
+    public static final String DIRECTORY = "supplier-profiles";
+
+    private static final ConcurrentMap<Class<?>, SupplierProfile> RUNNING = new ConcurrentHashMap<>();
+
+    private final Class<?> fTestClass;
+    private final ConcurrentMap<String, Source> fSources = new ConcurrentHashMap<>();
+
+    private SupplierProfile(Class<?> testClass) {
+        fTestClass = testClass;
+    }
+
+    /**
+     * Starts profiling the suppliers of the given test class, until {@link #finish()} is called.
+     *
+     * @return the profile, or {@code null} if profiling is not being done
+     */
+    public static SupplierProfile start(Class<?> testClass) {
+        if (testClass == null || !Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+
+        SupplierProfile profile = new SupplierProfile(testClass);
+        RUNNING.put(testClass, profile);
+        return profile;
+    }
+
+    /**
+     * @return the profile of the given test class, or {@code null} if it is not being profiled
+     */
+    public static SupplierProfile of(TestClass testClass) {
+        Class<?> type = testClass.getJavaClass();
+        return type == null || RUNNING.isEmpty() ? null : RUNNING.get(type);
+    }
+
+    public void finish() {
+        RUNNING.remove(fTestClass, this);
+    }
+
+    /**
+     * Records that the given source was asked for values once, starting at the given {@link System#nanoTime()}, and
+     * produced the given number of them.
+     */
+    public void record(String source, long startNanos, int values) {
+        long nanos = System.nanoTime() - startNanos;
+        Source counts = fSources.computeIfAbsent(source, name -> new Source());
+        counts.fInvocations.increment();
+        counts.fNanos.add(nanos);
+        counts.fValues.add(values);
+    }
+
+    public long getInvocations(String source) {
+        Source counts = fSources.get(source);
+        return counts == null ? 0 : counts.fInvocations.sum();
+    }
+
+    public long getValues(String source) {
+        Source counts = fSources.get(source);
+        return counts == null ? 0 : counts.fValues.sum();
+    }
+
+    /**
+     * @return the nanoseconds each source took, costliest first
+     */
+    public Map<String, Long> nanosBySource() {
+        List<Map.Entry<String, Source>> costliestFirst = new ArrayList<>(fSources.entrySet());
+        costliestFirst.sort((first, second) ->
+                Long.compare(second.getValue().fNanos.sum(), first.getValue().fNanos.sum()));
+
+        Map<String, Long> nanos = new LinkedHashMap<>();
+        for (Map.Entry<String, Source> each : costliestFirst) {
+            nanos.put(each.getKey(), each.getValue().fNanos.sum());
+        }
+        return nanos;
+    }
+
+    /**
+     * @return the profile, as lines of text
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(format("%s data point sources:%n", fTestClass.getName()));
+        for (Map.Entry<String, Long> each : nanosBySource().entrySet()) {
+            report.append(format("    %s: %d invocations, %.3f ms, %d values%n", each.getKey(),
+                    getInvocations(each.getKey()), each.getValue() / 1e6, getValues(each.getKey())));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Keeps the profile, in a file named after the test class.
+     */
+    public void save() throws IOException {
+        Reports.write(DIRECTORY, fTestClass.getName(), report());
+    }
+
+    private static class Source {
+        final LongAdder fInvocations = new LongAdder();
+        final LongAdder fNanos = new LongAdder();
+        final LongAdder fValues = new LongAdder();
+    }
+}
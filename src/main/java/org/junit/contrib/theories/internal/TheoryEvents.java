@@ -0,0 +1,73 @@
+package org.junit.contrib.theories.internal;
+
+import org.junit.contrib.theories.ParameterSignature;
+import org.junit.contrib.theories.TheoryMetrics;
+
+/**
+ * <p>Emits Java Flight Recorder events as theories run: one per theory, one per parameter whose potential values
+ * are supplied, and one for every {@value #DEFAULT_SAMPLE_INTERVAL}th complete assignment run (or every
+ * <em>n</em>th, given by the system property {@value #SAMPLE_INTERVAL_PROPERTY}), with its duration and
+ * outcome.</p>
+ *
+ * <p>On a JVM without Flight Recorder, and whenever a recording does not enable the events, the spans handed out
+ * do nothing, and calls to them are inlined away.</p>
+ */
+public abstract class TheoryEvents {
+    public static final String SAMPLE_INTERVAL_PROPERTY = "theories.jfrSampleInterval";
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    private static final TheoryEvents INSTANCE = load();
+
+    public interface TheorySpan {
+        void end(TheoryMetrics metrics);
+    }
+
+    public interface SupplierSpan {
+        void end(Class<?> supplier, int values);
+    }
+
+    public interface AssignmentSpan {
+        void end(Assignments complete, String outcome);
+    }
+
+    static final TheorySpan NO_THEORY = metrics -> { };
+    static final SupplierSpan NO_SUPPLIER = (supplier, values) -> { };
+    static final AssignmentSpan NO_ASSIGNMENT = (complete, outcome) -> { };
+
+    public static TheoryEvents get() {
+        return INSTANCE;
+    }
+
+    public abstract TheorySpan theoryStarted(Class<?> testClass, String method);
+
+    public abstract SupplierSpan supplierStarted(Class<?> testClass, ParameterSignature parameter);
+
+    /**
+     * @return a span recording the assignment about to run, if it is one of those sampled
+     */
+    public abstract AssignmentSpan assignmentStarted(Class<?> testClass, String method);
+
+    private static TheoryEvents load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (TheoryEvents) Class.forName(TheoryEvents.class.getPackage().getName() + ".JfrTheoryEvents")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // whatever the constructor threw, wrapped in an InvocationTargetException, means Flight Recorder is
+            // unusable here just as a missing class does
+            return new TheoryEvents() {
+                @Override public TheorySpan theoryStarted(Class<?> testClass, String method) {
+                    return NO_THEORY;
+                }
+
+                @Override public SupplierSpan supplierStarted(Class<?> testClass, ParameterSignature parameter) {
+                    return NO_SUPPLIER;
+                }
+
+                @Override public AssignmentSpan assignmentStarted(Class<?> testClass, String method) {
+                    return NO_ASSIGNMENT;
+                }
+            };
+        }
+    }
+}
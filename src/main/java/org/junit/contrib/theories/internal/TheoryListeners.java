@@ -0,0 +1,63 @@
+package org.junit.contrib.theories.internal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.contrib.theories.TheoryListener;
+
+/**
+ * The {@link TheoryListener}s registered in this JVM, and those named by the system property
+ * {@value #LISTENERS_PROPERTY}.
+ */
+public final class TheoryListeners {
+    public static final String LISTENERS_PROPERTY = "theories.listeners";
+
+    private static final List<TheoryListener> REGISTERED = new CopyOnWriteArrayList<>();
+    private static final ConcurrentMap<String, TheoryListener> NAMED = new ConcurrentHashMap<>();
+
+    private TheoryListeners() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void add(TheoryListener listener) {
+        REGISTERED.add(listener);
+    }
+
+    public static void remove(TheoryListener listener) {
+        REGISTERED.remove(listener);
+    }
+
+    /**
+     * @return the listeners to tell about a theory starting now
+     */
+    public static List<TheoryListener> current() {
+        List<TheoryListener> listeners = new ArrayList<>(REGISTERED);
+        String named = System.getProperty(LISTENERS_PROPERTY, "");
+        for (String each : named.split(",")) {
+            if (!each.trim().isEmpty()) {
+                listeners.add(NAMED.computeIfAbsent(each.trim(), TheoryListeners::instantiate));
+            }
+        }
+        return listeners;
+    }
+
+    private static TheoryListener instantiate(String className) {
+        try {
+            return Class.forName(className).asSubclass(TheoryListener.class).getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            throw notMadeFrom(className, e.getCause());
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw notMadeFrom(className, e);
+        }
+    }
+
+    private static IllegalArgumentException notMadeFrom(String className, Throwable cause) {
+        return new IllegalArgumentException(
+                String.format("%s names %s, which is not a TheoryListener that can be made", LISTENERS_PROPERTY,
+                        className), cause);
+    }
+}
@@ -0,0 +1,172 @@
+package org.junit.contrib.theories.internal;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.contrib.theories.TheoryMetrics;
+
+/**
+ * <p>Shows the theories running in this JVM, and lets them be slowed, sped up or stopped, through an MBean named
+ * {@value #OBJECT_NAME} on the platform MBean server. The MBean is registered when the first theory starts, unless
+ * the system property {@value #ENABLED_PROPERTY} is {@code false}.</p>
+ */
+public final class TheoryMonitor implements TheoryMonitorMBean {
+    public static final String OBJECT_NAME = "org.junit.contrib.theories:type=TheoryMonitor";
+    public static final String ENABLED_PROPERTY = "theories.jmx";
+
+    /**
+     * A theory as the monitor sees it.
+     */
+    public interface RunningTheory {
+        String getName();
+
+        long getCombinationIndex();
+
+        long getCombinationCount();
+
+        TheoryMetrics getMetrics();
+
+        void resize(int maxConcurrentAssignments);
+
+        void stop();
+    }
+
+    private static final TheoryMonitor INSTANCE = new TheoryMonitor();
+
+    private final Deque<RunningTheory> fRunning = new ConcurrentLinkedDeque<>();
+    private volatile int fMaxConcurrentAssignments;
+    private volatile boolean fRegistered;
+
+    private TheoryMonitor() {
+    }
+
+    public static TheoryMonitor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the number of assignments a theory starting now may run at once, given the number it asks for
+     */
+    public int maxConcurrentAssignments(int declared) {
+        int overridden = fMaxConcurrentAssignments;
+        return overridden > 0 ? overridden : declared;
+    }
+
+    public void started(RunningTheory theory) {
+        register();
+        fRunning.addLast(theory);
+    }
+
+    public void finished(RunningTheory theory) {
+        fRunning.remove(theory);
+    }
+
+    private void register() {
+        if (fRegistered || "false".equals(System.getProperty(ENABLED_PROPERTY))) {
+            return;
+        }
+
+        synchronized (this) {
+            if (fRegistered) {
+                return;
+            }
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName(OBJECT_NAME);
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(this, name);
+                }
+            } catch (JMException | SecurityException e) {
+                // monitoring is a convenience; theories run without it
+            }
+            fRegistered = true;
+        }
+    }
+
+    private RunningTheory current() {
+        return fRunning.peekLast();
+    }
+
+    @Override public String getCurrentTheory() {
+        RunningTheory current = current();
+        return current == null ? null : current.getName();
+    }
+
+    @Override public String[] getRunningTheories() {
+        List<String> names = new ArrayList<>();
+        for (RunningTheory each : fRunning) {
+            names.add(each.getName());
+        }
+        return names.toArray(new String[0]);
+    }
+
+    @Override public long getCombinationIndex() {
+        RunningTheory current = current();
+        return current == null ? 0 : current.getCombinationIndex();
+    }
+
+    @Override public long getCombinationCount() {
+        RunningTheory current = current();
+        return current == null ? -1 : current.getCombinationCount();
+    }
+
+    @Override public long getExecuted() {
+        RunningTheory current = current();
+        return current == null ? 0 : current.getMetrics().getExecuted();
+    }
+
+    @Override public long getSucceeded() {
+        RunningTheory current = current();
+        return current == null ? 0 : current.getMetrics().getSucceeded();
+    }
+
+    @Override public long getFailed() {
+        RunningTheory current = current();
+        return current == null ? 0 : current.getMetrics().getFailed();
+    }
+
+    @Override public long getAssumptionViolations() {
+        RunningTheory current = current();
+        return current == null ? 0 : current.getMetrics().getAssumptionViolations();
+    }
+
+    @Override public double getThroughput() {
+        RunningTheory current = current();
+        if (current == null) {
+            return 0;
+        }
+
+        TheoryMetrics metrics = current.getMetrics();
+        long elapsed = metrics.getElapsedNanos();
+        return elapsed <= 0 ? 0 : metrics.getExecuted() * 1e9 / elapsed;
+    }
+
+    @Override public int getMaxConcurrentAssignments() {
+        return fMaxConcurrentAssignments;
+    }
+
+    @Override public void setMaxConcurrentAssignments(int maxConcurrentAssignments) {
+        fMaxConcurrentAssignments = Math.max(0, maxConcurrentAssignments);
+        if (maxConcurrentAssignments > 0) {
+            for (RunningTheory each : fRunning) {
+                each.resize(maxConcurrentAssignments);
+            }
+        }
+    }
+
+    @Override public boolean stopCurrentTheory() {
+        RunningTheory current = current();
+        if (current == null) {
+            return false;
+        }
+        current.stop();
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+package org.junit.contrib.theories.internal;
+
+/**
+ * The management interface of the {@link TheoryMonitor}.
+ */
+public interface TheoryMonitorMBean {
+    /**
+     * @return the theory started most recently of those still running, as {@code class#method}, or {@code null}
+     * if none is running
+     */
+    String getCurrentTheory();
+
+    /**
+     * @return every theory running, as {@code class#method}
+     */
+    String[] getRunningTheories();
+
+    /**
+     * @return the number of complete assignments the current theory has enumerated so far
+     */
+    long getCombinationIndex();
+
+    /**
+     * @return the number of complete assignments of the current theory, or -1 if it has not been counted
+     */
+    long getCombinationCount();
+
+    long getExecuted();
+
+    long getSucceeded();
+
+    long getFailed();
+
+    long getAssumptionViolations();
+
+    /**
+     * @return the number of assignments of the current theory executed per second since it started
+     */
+    double getThroughput();
+
+    /**
+     * @return the number of assignments that theories started from now on may run at once, or 0 if each theory's
+     * own {@link org.junit.contrib.theories.Theory#maxConcurrentAssignments()} is used
+     */
+    int getMaxConcurrentAssignments();
+
+    /**
+     * Changes the number of assignments running theories may run at once, if they already run more than one, and
+     * that theories started from now on may run at once; 0 goes back to each theory's own setting for theories
+     * started from now on.
+     */
+    void setMaxConcurrentAssignments(int maxConcurrentAssignments);
+
+    /**
+     * Stops the current theory once the assignments already running finish. Failures found so far are reported;
+     * if there are none, the theory is reported as skipped. A checkpoint, if kept, is saved rather than discarded,
+     * so that the next run resumes where this one stopped.
+     *
+     * @return whether a theory was running
+     */
+    boolean stopCurrentTheory();
+}
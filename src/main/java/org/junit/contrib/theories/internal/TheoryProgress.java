@@ -0,0 +1,103 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.LongSupplier;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * <p>Reports how far through its combinations a running theory is, every so many milliseconds as given by the system
+ * property {@value #INTERVAL_PROPERTY}, with the rate combinations are being got through and the time left at that
+ * rate. Reports are printed to standard error, or handed to each
+ * {@link org.junit.contrib.theories.TheoryListener} instead when the system property {@value #SINK_PROPERTY} is
+ * {@value #LISTENERS}.</p>
+ *
+ * <p>Reports are made from the {@link Watchdog}'s thread, reading the runner's position among the combinations, so
+ * running assignments pay nothing for them. Combinations skipped, for instance because they belong to another shard,
+ * count as got through.</p>
+ */
+public final class TheoryProgress {
+    public static final String INTERVAL_PROPERTY = "theories.progressInterval";
+    public static final String SINK_PROPERTY = "theories.progressSink";
+    public static final String STANDARD_ERROR = "stderr";
+    public static final String LISTENERS = "listeners";
+
+    /**
+     * Where reports go when they are handed to listeners.
+     */
+    public interface Sink {
+        void progressed(long done, long combinations, long etaMillis) throws Exception;
+    }
+
+    private final String fTheory;
+    private final long fCombinations;
+    private final LongSupplier fDone;
+    private final Sink fSink;
+    private final long fStartNanos = System.nanoTime();
+    private final long fDoneAtStart;
+    private volatile ScheduledFuture<?> fReports;
+
+    private TheoryProgress(String theory, long combinations, LongSupplier done, Sink sink) {
+        fTheory = theory;
+        fCombinations = combinations;
+        fDone = done;
+        fSink = sink;
+        fDoneAtStart = done.getAsLong();
+    }
+
+    /**
+     * @return whether progress is being reported
+     */
+    public static boolean isEnabled() {
+        return Long.getLong(INTERVAL_PROPERTY, 0) > 0;
+    }
+
+    /**
+     * Starts reporting the progress of the given theory method, as {@code class#method}, until {@link #stop()} is
+     * called.
+     *
+     * @param done how many of the combinations have been got through
+     * @param listeners where reports go when they are handed to listeners
+     * @return the reports, or {@code null} if progress is not being reported
+     */
+    public static TheoryProgress start(String theory, long combinations, LongSupplier done, Sink listeners) {
+        long interval = Long.getLong(INTERVAL_PROPERTY, 0);
+        if (interval <= 0) {
+            return null;
+        }
+
+        Sink sink = LISTENERS.equals(System.getProperty(SINK_PROPERTY, STANDARD_ERROR)) ? listeners : null;
+        TheoryProgress progress = new TheoryProgress(theory, combinations, done, sink);
+        progress.fReports = Watchdog.repeat(progress::report, interval);
+        return progress;
+    }
+
+    public void stop() {
+        fReports.cancel(false);
+    }
+
+    private void report() {
+        long done = Math.min(fDone.getAsLong(), fCombinations);
+        long elapsedNanos = System.nanoTime() - fStartNanos;
+        double perSecond = (done - fDoneAtStart) / (elapsedNanos / 1e9);
+        long etaMillis = perSecond > 0 ? (long) ((fCombinations - done) / perSecond * 1000) : -1;
+
+        if (fSink == null) {
+            System.err.println(format("%s: %d/%d combinations (%.1f%%), %.1f/s, ETA %s", fTheory, done,
+                    fCombinations, fCombinations == 0 ? 100.0 : 100.0 * done / fCombinations, perSecond,
+                    etaMillis < 0 ? "unknown" : duration(etaMillis)));
+            return;
+        }
+        try {
+            fSink.progressed(done, fCombinations, etaMillis);
+        } catch (Exception e) {
+            // a listener that cannot take a report should not stop the theory, nor the reports after it
+        }
+    }
+
+    private static String duration(long millis) {
+        long seconds = MILLISECONDS.toSeconds(millis);
+        return format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
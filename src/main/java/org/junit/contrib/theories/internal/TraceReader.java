@@ -0,0 +1,102 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.junit.contrib.theories.internal.TraceRecorder.*;
+
+/**
+ * <p>Turns a trace written by {@link TraceRecorder} into CSV, one row per event, with times in nanoseconds from the
+ * start of the trace:</p>
+ *
+ * <pre>
+ * java -cp ... org.junit.contrib.theories.internal.TraceReader target/theories/trace/com.example.Test#holds.trace
+ * </pre>
+ */
+public final class TraceReader {
+    private static final String[] OUTCOMES = { "succeeded", "returned", "violated assumption", "failed" };
+    private static final int RECORDS_PER_READ = 4096;
+
+    private TraceReader() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: TraceReader <trace file>");
+            System.exit(2);
+        }
+
+        Writer out = new OutputStreamWriter(System.out, UTF_8);
+        toCsv(Paths.get(args[0]), out);
+        out.flush();
+    }
+
+    public static void toCsv(Path trace, Appendable out) throws IOException {
+        try (FileChannel channel = FileChannel.open(trace, READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getLong() != MAGIC) {
+                throw new IOException(trace + " is not a theory trace");
+            }
+            header.getLong();
+            long startNanos = header.getLong();
+            long records = Math.min(header.getLong(), (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+
+            out.append("kind,index,thread,start_nanos,end_nanos,duration_nanos,outcome,values\n");
+            ByteBuffer record = ByteBuffer.allocate(RECORDS_PER_READ * RECORD_SIZE);
+            record.flip();
+            for (long i = 0; i < records; i++) {
+                if (!record.hasRemaining()) {
+                    record.clear();
+                    record.limit((int) Math.min(records - i, RECORDS_PER_READ) * RECORD_SIZE);
+                    readFully(channel, record, HEADER_SIZE + i * RECORD_SIZE);
+                    record.flip();
+                }
+
+                byte kind = record.get();
+                byte outcome = record.get();
+                record.getShort();
+                int values = record.getInt();
+                long index = record.getLong();
+                long thread = record.getLong();
+                long start = record.getLong();
+                long end = record.getLong();
+                if (kind != ASSIGNMENT && kind != SUPPLIER) {
+                    // claimed, but never written
+                    continue;
+                }
+
+                out.append(kind == ASSIGNMENT ? "assignment" : "supplier").append(',')
+                        .append(String.valueOf(index)).append(',')
+                        .append(String.valueOf(thread)).append(',')
+                        .append(String.valueOf(start - startNanos)).append(',')
+                        .append(String.valueOf(end - startNanos)).append(',')
+                        .append(String.valueOf(end - start)).append(',')
+                        .append(kind == ASSIGNMENT ? outcomeOf(outcome) : "").append(',')
+                        .append(kind == SUPPLIER ? String.valueOf(values) : "").append('\n');
+            }
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("trace ends before its last record");
+            }
+        }
+    }
+
+    private static String outcomeOf(byte outcome) {
+        return outcome >= 0 && outcome < OUTCOMES.length ? OUTCOMES[outcome] : String.valueOf(outcome);
+    }
+}
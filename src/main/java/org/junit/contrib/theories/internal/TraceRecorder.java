@@ -0,0 +1,220 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.channels.FileChannel.MapMode.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * <p>Records when each complete assignment of a theory ran, on which thread and how it turned out, and when each
+ * supplier was asked for values, in a compact binary file that {@link TraceReader} turns into CSV. A trace is
+ * recorded when the system property {@value #ENABLED_PROPERTY} is {@code true}, in the {@code trace} subdirectory of
+ * the {@link StateDirectory state directory}, one file per theory method.</p>
+ *
+ * <p>The file is a {@value #HEADER_SIZE}-byte header followed by {@value #RECORD_SIZE}-byte records, in the
+ * platform-independent big-endian order:</p>
+ *
+ * <pre>
+ * header: magic "THTRACE1", long wall clock millis and long {@link System#nanoTime()} at the start, long records
+ * record: byte kind, byte outcome, short unused, int values, long index, long thread, long start nanos, long end nanos
+ * </pre>
+ *
+ * <p>The count of records in the header is brought up to date as each buffer is copied into the file, so a trace
+ * left by a JVM that crashed reads up to the last buffer copied in.</p>
+ *
+ * <p>An assignment's index is its number among the theory's combinations; a supplier's is the number of parameters
+ * already assigned, and its values the number it gave. Records are not in the order events happened.</p>
+ *
+ * <p>Events are gathered in a few buffers, twice as many as there are processors, each taken by a thread with a
+ * single compare-and-set and passed over if another thread has it, so that threads seldom wait for one another; a
+ * thread that finds every buffer taken yields before looking again. A full buffer is copied into the memory-mapped file after the records already there. Buffers are not kept per
+ * thread, since each assignment runs on a thread of its own.</p>
+ */
+public class TraceRecorder implements Closeable {
+    public static final String ENABLED_PROPERTY = "theories.trace";
+
+    public static final byte ASSIGNMENT = 1;
+    public static final byte SUPPLIER = 2;
+
+    public static final byte SUCCEEDED = 0;
+    public static final byte RETURNED = 1;
+    public static final byte VIOLATED_ASSUMPTION = 2;
+    public static final byte FAILED = 3;
+
+    static final long MAGIC = 0x5448545241434531L; // "THTRACE1"
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 40;
+
+    private static final int CHUNK_BITS = 20;
+    private static final long CHUNK_SIZE = (long) RECORD_SIZE << CHUNK_BITS;
+    private static final int STRIPE_RECORDS = 1024;
+
+    private final FileChannel fChannel;
+    private final Stripe[] fStripes;
+    private final MappedByteBuffer fHeader;
+    private final AtomicLong fNext = new AtomicLong();
+    private long fCommitted;
+    private volatile MappedByteBuffer[] fChunks = new MappedByteBuffer[0];
+
+    private TraceRecorder(FileChannel channel) throws IOException {
+        fChannel = channel;
+        fStripes = new Stripe[Integer.highestOneBit(2 * Runtime.getRuntime().availableProcessors() - 1) << 1];
+        for (int i = 0; i < fStripes.length; i++) {
+            fStripes[i] = new Stripe();
+        }
+
+        fHeader = fChannel.map(READ_WRITE, 0, HEADER_SIZE);
+        fHeader.putLong(MAGIC).putLong(System.currentTimeMillis()).putLong(System.nanoTime()).putLong(0);
+    }
+
+    /**
+     * @param theory names the theory method, as {@code class#method} and any shard or slice it is running
+     * @return the recorder to record into, or {@code null} if traces are not being recorded
+     */
+    public static TraceRecorder open(String theory) throws IOException {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+
+        Path file = StateDirectory.resolve("trace", theory + ".trace");
+        return new TraceRecorder(FileChannel.open(file, CREATE, TRUNCATE_EXISTING, READ, WRITE));
+    }
+
+    public void assignment(long ordinal, long startNanos, long endNanos, byte outcome) {
+        record(ASSIGNMENT, outcome, 0, ordinal, startNanos, endNanos);
+    }
+
+    public void supplier(int assigned, int values, long startNanos, long endNanos) {
+        record(SUPPLIER, SUCCEEDED, values, assigned, startNanos, endNanos);
+    }
+
+    private void record(byte kind, byte outcome, int values, long index, long startNanos, long endNanos) {
+        long thread = Thread.currentThread().getId();
+        int mask = fStripes.length - 1;
+        for (int probe = 0; ; probe++) {
+            Stripe stripe = fStripes[(int) (thread + probe) & mask];
+            if (!stripe.fBusy.compareAndSet(false, true)) {
+                if ((probe & mask) == mask) {
+                    Thread.yield();
+                }
+                continue;
+            }
+            try {
+                ByteBuffer records = stripe.fRecords;
+                records.put(kind).put(outcome).putShort((short) 0).putInt(values)
+                        .putLong(index).putLong(thread).putLong(startNanos).putLong(endNanos);
+                if (!records.hasRemaining()) {
+                    flush(records);
+                }
+            } finally {
+                stripe.fBusy.set(false);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Copies the given records into the file, after those already there, and empties the buffer.
+     */
+    private void flush(ByteBuffer records) {
+        records.flip();
+        long next = fNext.getAndAdd(records.remaining() / RECORD_SIZE);
+        long end = next + records.remaining() / RECORD_SIZE;
+        try {
+            while (records.hasRemaining()) {
+                int offset = (int) (next & ((1 << CHUNK_BITS) - 1));
+                int fitting = Math.min(records.remaining() / RECORD_SIZE, (1 << CHUNK_BITS) - offset);
+                ByteBuffer into = chunk((int) (next >>> CHUNK_BITS)).duplicate();
+                into.position(offset * RECORD_SIZE);
+
+                ByteBuffer from = records.duplicate();
+                from.limit(from.position() + fitting * RECORD_SIZE);
+                into.put(from);
+                records.position(from.limit());
+                next += fitting;
+            }
+            commit(end);
+        } catch (IOException e) {
+            // the records left are read as never written
+        } finally {
+            records.clear();
+        }
+    }
+
+    /**
+     * Counts the records up to the given one in the header. Those claimed by other threads still copying them in are
+     * counted too, and read as never written should the JVM crash first.
+     */
+    private void commit(long end) {
+        synchronized (fHeader) {
+            if (end > fCommitted) {
+                fCommitted = end;
+                fHeader.putLong(24, end);
+            }
+        }
+    }
+
+    private MappedByteBuffer chunk(int index) throws IOException {
+        MappedByteBuffer[] chunks = fChunks;
+        if (index < chunks.length && chunks[index] != null) {
+            return chunks[index];
+        }
+        return mapChunk(index);
+    }
+
+    private synchronized MappedByteBuffer mapChunk(int index) throws IOException {
+        MappedByteBuffer[] chunks = fChunks;
+        if (index >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(index + 1, 2 * chunks.length));
+        } else if (chunks[index] != null) {
+            return chunks[index];
+        } else {
+            chunks = chunks.clone();
+        }
+
+        chunks[index] = fChannel.map(READ_WRITE, HEADER_SIZE + index * CHUNK_SIZE, CHUNK_SIZE);
+        fChunks = chunks;
+        return chunks[index];
+    }
+
+    /**
+     * Writes out the events recorded, all of which must have finished being recorded, and cuts the file down to
+     * them.
+     */
+    @Override public synchronized void close() throws IOException {
+        try {
+            for (Stripe each : fStripes) {
+                flush(each.fRecords);
+            }
+            long recorded = fNext.get();
+            for (MappedByteBuffer each : fChunks) {
+                if (each != null) {
+                    each.force();
+                }
+            }
+
+            commit(recorded);
+            fHeader.force();
+            try {
+                fChannel.truncate(HEADER_SIZE + recorded * RECORD_SIZE);
+            } catch (IOException e) {
+                // some platforms keep a mapped file from shrinking; readers go by the count in the header
+            }
+        } finally {
+            fChannel.close();
+        }
+    }
+
+    private static final class Stripe {
+        final AtomicBoolean fBusy = new AtomicBoolean();
+        final ByteBuffer fRecords = ByteBuffer.allocateDirect(STRIPE_RECORDS * RECORD_SIZE);
+    }
+}
@@ -0,0 +1,89 @@
+package org.junit.contrib.theories.internal;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Interrupts threads that overrun a time limit. Every watch in the JVM is serviced by a single shared daemon
+ * thread, so that bounding each of a theory's assignments in time doesn't cost a thread per assignment. The same
+ * thread runs other short periodic chores, such as reporting progress.
+ */
+public final class Watchdog {
+    private static final ScheduledThreadPoolExecutor SCHEDULER = newScheduler();
+
+    private Watchdog() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Starts watching the calling thread, which will be interrupted if the watch is not {@linkplain Watch#stop()
+     * stopped} within the given number of milliseconds.
+     */
+    public static Watch watch(long millis) {
+        Watch watch = new Watch(Thread.currentThread());
+        watch.fAlarm = SCHEDULER.schedule(watch::expire, millis, MILLISECONDS);
+        return watch;
+    }
+
+    /**
+     * Runs the given task every given number of milliseconds, until the returned future is cancelled. The task must
+     * be quick, since it holds up every watch while it runs.
+     */
+    public static ScheduledFuture<?> repeat(Runnable task, long millis) {
+        return SCHEDULER.scheduleAtFixedRate(task, millis, millis, MILLISECONDS);
+    }
+
+    private static ScheduledThreadPoolExecutor newScheduler() {
+        ThreadFactory threads = runnable -> {
+            Thread thread = new Thread(runnable, "theories-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, threads);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    public static final class Watch {
+        private final Thread fWatched;
+        private volatile ScheduledFuture<?> fAlarm;
+        private boolean fExpired;
+        private boolean fStopped;
+
+        private Watch(Thread watched) {
+            fWatched = watched;
+        }
+
+        private synchronized void expire() {
+            if (!fStopped) {
+                fExpired = true;
+                fWatched.interrupt();
+            }
+        }
+
+        public synchronized boolean isExpired() {
+            return fExpired;
+        }
+
+        /**
+         * Stops the watch. Must be called from the watched thread; if the watch had expired, the thread's
+         * interrupted status is cleared.
+         *
+         * @return whether the watch had expired
+         */
+        public synchronized boolean stop() {
+            if (!fStopped) {
+                fStopped = true;
+                fAlarm.cancel(false);
+                if (fExpired) {
+                    Thread.interrupted();
+                }
+            }
+            return fExpired;
+        }
+    }
+}
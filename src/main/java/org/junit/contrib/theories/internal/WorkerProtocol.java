@@ -0,0 +1,92 @@
+package org.junit.contrib.theories.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * The messages a {@link ForkedTheoryWorker} sends its parent about the assignments it runs. A worker first sends
+ * the index of its slice, as an int; each message after that is a single tag byte followed by the message's fields.
+ */
+final class WorkerProtocol {
+    static final byte STARTED = 'S';
+    static final byte SUCCEEDED = 'K';
+    static final byte VIOLATED_ASSUMPTION = 'A';
+    static final byte FAILED = 'F';
+    static final byte ERROR = 'E';
+    static final byte DONE = 'D';
+
+    private WorkerProtocol() {
+        throw new UnsupportedOperationException();
+    }
+
+    static void writeStrings(DataOutputStream out, Object... strings) throws IOException {
+        out.writeInt(strings.length);
+        for (Object each : strings) {
+            writeString(out, String.valueOf(each));
+        }
+    }
+
+    static Object[] readStrings(DataInputStream in) throws IOException {
+        Object[] strings = new Object[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(in);
+        }
+        return strings;
+    }
+
+    /**
+     * Writes a string as its length in UTF-8 bytes followed by the bytes, since descriptions of data points and
+     * assumption messages can exceed the 64 KB {@link DataOutputStream#writeUTF(String)} is limited to.
+     */
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    static void writeThrowable(DataOutputStream out, Throwable e) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = serialize(e);
+        } catch (IOException notSerializable) {
+            AssertionError substitute = new AssertionError(e.toString());
+            substitute.setStackTrace(e.getStackTrace());
+            bytes = serialize(substitute);
+        }
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static Throwable readThrowable(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Throwable) objects.readObject();
+        } catch (ClassNotFoundException e) {
+            return new AssertionError("worker reported a failure of unknown type: " + e.getMessage());
+        }
+    }
+
+    private static byte[] serialize(Throwable e) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+            objects.writeObject(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+package org.junit.contrib.tests.theories.internal;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.contrib.theories.internal.AssignmentExecutor;
+
+import static java.util.concurrent.TimeUnit.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+public class AssignmentExecutorTest {
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @After public void stopThreads() {
+        threads.shutdownNow();
+    }
+
+    @Test public void boundsTasksInFlight() throws Throwable {
+        AssignmentExecutor executor = AssignmentExecutor.concurrent(threads, 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger mostInFlight = new AtomicInteger();
+
+        for (int i = 0; i < 50; i++) {
+            executor.execute(() -> {
+                int now = inFlight.incrementAndGet();
+                mostInFlight.accumulateAndGet(now, Math::max);
+                Thread.sleep(2);
+                inFlight.decrementAndGet();
+            });
+        }
+        executor.await();
+
+        assertThat(inFlight.get(), is(0));
+        assertTrue(mostInFlight.get() <= 3);
+    }
+
+    @Test public void runsTasksConcurrently() throws Throwable {
+        AssignmentExecutor executor = AssignmentExecutor.concurrent(threads, 2);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                bothStarted.countDown();
+                assertTrue(bothStarted.await(10, SECONDS));
+            });
+        }
+        executor.await();
+    }
+
+    @Test public void letsMoreTasksInFlightOnceResized() throws Throwable {
+        AssignmentExecutor executor = AssignmentExecutor.concurrent(threads, 1);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        executor.resize(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                bothStarted.countDown();
+                assertTrue(bothStarted.await(10, SECONDS));
+            });
+        }
+        executor.await();
+    }
+
+    @Test public void boundsTasksInFlightOnceShrunk() throws Throwable {
+        AssignmentExecutor executor = AssignmentExecutor.concurrent(threads, 4);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger mostInFlight = new AtomicInteger();
+
+        executor.resize(1);
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                int now = inFlight.incrementAndGet();
+                mostInFlight.accumulateAndGet(now, Math::max);
+                Thread.sleep(1);
+                inFlight.decrementAndGet();
+            });
+        }
+        executor.await();
+
+        assertThat(mostInFlight.get(), is(1));
+    }
+
+    @Test public void throwsFirstFailureOnce() throws Throwable {
+        AssignmentExecutor executor = AssignmentExecutor.concurrent(threads, 2);
+        IllegalStateException failure = new IllegalStateException();
+
+        executor.execute(() -> {
+            throw failure;
+        });
+
+        try {
+            executor.await();
+            fail();
+        } catch (IllegalStateException expected) {
+            assertSame(failure, expected);
+        }
+        executor.await();
+    }
+
+    @Test public void sequentialExecutorRunsTasksInline() throws Throwable {
+        Thread caller = Thread.currentThread();
+        AtomicInteger runs = new AtomicInteger();
+
+        AssignmentExecutor executor = AssignmentExecutor.sequential();
+        executor.execute(() -> {
+            assertSame(caller, Thread.currentThread());
+            runs.incrementAndGet();
+        });
+
+        assertThat(runs.get(), is(1));
+    }
+}
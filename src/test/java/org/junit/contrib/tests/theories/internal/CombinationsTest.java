@@ -0,0 +1,103 @@
+package org.junit.contrib.tests.theories.internal;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.PotentialAssignment;
+import org.junit.contrib.theories.internal.Assignments;
+import org.junit.contrib.theories.internal.Combinations;
+import org.junit.runners.model.TestClass;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+public class CombinationsTest {
+    public static class Mixed {
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+        @DataPoints public static final String[] STRINGS = { "a", "b" };
+
+        public Mixed(String prefix) {
+        }
+
+        public void theory(int x, String s, int y) {
+        }
+    }
+
+    public static class NoStrings {
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        public void theory(int x, String s) {
+        }
+    }
+
+    @Test public void countsProductOfPotentials() throws Throwable {
+        assertEquals(2 * 3 * 2 * 3, combinationsOf(Mixed.class).size());
+    }
+
+    @Test public void decodesCombinationsInOrderOfEnumeration() throws Throwable {
+        Combinations combinations = combinationsOf(Mixed.class);
+        List<List<Object>> enumerated = new ArrayList<>();
+        enumerate(unassigned(Mixed.class), enumerated);
+
+        for (int k = 0; k < enumerated.size(); k++) {
+            assertEquals(enumerated.get(k), Arrays.asList(combinations.get(k).getArgumentStrings()));
+        }
+        assertEquals(enumerated.size(), combinations.size());
+    }
+
+    @Test public void decodesWithoutVisitingEarlierCombinations() throws Throwable {
+        Combinations combinations = combinationsOf(Mixed.class);
+
+        assertEquals(
+                Arrays.<Object> asList("\"b\" <from STRINGS[1]>", "\"2\" <from INTS[1]>", "\"a\" <from STRINGS[0]>",
+                        "\"3\" <from INTS[2]>"),
+                Arrays.asList(combinations.get(3 * 2 * 3 + 1 * 2 * 3 + 0 * 3 + 2).getArgumentStrings()));
+    }
+
+    @Test public void exposesRunLengthsByDepth() throws Throwable {
+        Combinations combinations = combinationsOf(Mixed.class);
+
+        assertEquals(3 * 2 * 3, combinations.sizeFrom(1));
+        assertEquals(3, combinations.sizeFrom(3));
+        assertEquals(1, combinations.sizeFrom(4));
+        assertThat(combinations.potentialsAt(2).size(), is(2));
+    }
+
+    @Test public void hasNoCombinationsWhenAParameterHasNoPotentials() throws Throwable {
+        assertEquals(0, combinationsOf(NoStrings.class).size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsIndexBeyondLastCombination() throws Throwable {
+        Combinations combinations = combinationsOf(Mixed.class);
+
+        combinations.get(combinations.size());
+    }
+
+    private static Combinations combinationsOf(Class<?> type) throws Throwable {
+        return unassigned(type).combinations();
+    }
+
+    private static Assignments unassigned(Class<?> type) throws Throwable {
+        for (Method each : type.getMethods()) {
+            if (each.getName().equals("theory")) {
+                return Assignments.allUnassigned(each, new TestClass(type));
+            }
+        }
+        throw new AssertionError("no theory in " + type);
+    }
+
+    private static void enumerate(Assignments assignments, List<List<Object>> enumerated) throws Throwable {
+        if (assignments.isComplete()) {
+            enumerated.add(Arrays.asList(assignments.getArgumentStrings()));
+            return;
+        }
+        for (PotentialAssignment each : assignments.potentialsForNextUnassigned()) {
+            enumerate(assignments.assignNext(each), enumerated);
+        }
+    }
+}
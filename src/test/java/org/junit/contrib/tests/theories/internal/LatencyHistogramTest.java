@@ -0,0 +1,59 @@
+package org.junit.contrib.tests.theories.internal;
+
+import org.junit.Test;
+import org.junit.contrib.theories.internal.LatencyHistogram;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+    @Test public void reportsNothingRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.count(), is(0L));
+        assertThat(histogram.percentile(50), is(0L));
+    }
+
+    @Test public void givesSmallDurationsExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long each = 1; each <= 100; each++) {
+            histogram.record(each);
+        }
+
+        assertThat(histogram.percentile(50), is(50L));
+        assertThat(histogram.percentile(99), is(99L));
+        assertThat(histogram.max(), is(100L));
+    }
+
+    @Test public void givesLargeDurationsToWithinTwoPercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long each = 1; each <= 1000; each++) {
+            histogram.record(each * 1000003L);
+        }
+
+        assertWithin(500 * 1000003L, histogram.percentile(50));
+        assertWithin(990 * 1000003L, histogram.percentile(99));
+        assertThat(histogram.max(), is(1000 * 1000003L));
+        assertThat(histogram.count(), is(1000L));
+    }
+
+    @Test public void neverReportsMoreThanTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000001L);
+
+        assertThat(histogram.percentile(100), is(1000001L));
+    }
+
+    @Test public void coversTheWholeRangeOfLongs() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-1);
+
+        assertThat(histogram.percentile(100), is(Long.MAX_VALUE));
+        assertThat(histogram.percentile(50), is(0L));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " is not within 2% of " + expected, Math.abs(actual - expected) <= expected / 50);
+    }
+}
@@ -0,0 +1,109 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.AssumptionViolatedException;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class AsynchronousTheoriesTest {
+    private static final ExecutorService CLIENT = Executors.newFixedThreadPool(4);
+
+    @AfterClass public static void stopClient() {
+        CLIENT.shutdownNow();
+    }
+
+    private static CompletableFuture<Void> later(Runnable action) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            action.run();
+        }, CLIENT);
+    }
+
+    @RunWith(Theories.class)
+    public static class WindowOfRoundTrips {
+        static final AtomicInteger inFlight = new AtomicInteger();
+        static final AtomicInteger mostInFlight = new AtomicInteger();
+        static final AtomicInteger completed = new AtomicInteger();
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+
+        @Theory(maxConcurrentAssignments = 4) public CompletableFuture<Void> roundTrip(int x, int y) {
+            mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return later(() -> {
+                inFlight.decrementAndGet();
+                completed.incrementAndGet();
+            });
+        }
+    }
+
+    @Test public void keepsBoundedWindowOfAssignmentsInFlight() {
+        WindowOfRoundTrips.completed.set(0);
+        WindowOfRoundTrips.mostInFlight.set(0);
+
+        assertThat(testResult(WindowOfRoundTrips.class), isSuccessful());
+        assertThat(WindowOfRoundTrips.completed.get(), is(100));
+        assertTrue(WindowOfRoundTrips.mostInFlight.get() <= 4);
+    }
+
+    @RunWith(Theories.class)
+    public static class FailsExceptionally {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4 };
+
+        @Theory(maxConcurrentAssignments = 2) public CompletionStage<Void> notThree(final int x) {
+            return later(() -> assertThat(x, not(3)));
+        }
+    }
+
+    @Test public void reportsExceptionalCompletionAgainstItsAssignment() {
+        assertThat(
+                testResult(FailsExceptionally.class),
+                allOf(hasSingleFailureContaining("notThree(\"3\" <from INTS[2]>)"),
+                        hasFailureContaining("not <3>")));
+    }
+
+    @RunWith(Theories.class)
+    public static class ViolatesAssumptionsAsynchronously {
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        @Theory(maxConcurrentAssignments = 3) public CompletionStage<Void> never(int x) {
+            return later(() -> {
+                throw new AssumptionViolatedException("never");
+            });
+        }
+    }
+
+    @Test public void mapsAssumptionFailuresOfCompletions() {
+        assertThat(testResult(ViolatesAssumptionsAsynchronously.class), hasSingleFailureContaining("Never found"));
+    }
+
+    @RunWith(Theories.class)
+    public static class ReturnsNonFuture {
+        @DataPoints public static final int[] INTS = { 1 };
+
+        @Theory public int notAsynchronous(int x) {
+            return x;
+        }
+    }
+
+    @Test public void rejectsOtherReturnTypes() {
+        assertThat(testResult(ReturnsNonFuture.class), hasSingleFailureContaining("should be void"));
+    }
+}
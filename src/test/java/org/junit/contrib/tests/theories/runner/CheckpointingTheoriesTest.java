@@ -0,0 +1,97 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.Checkpoint;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class CheckpointingTheoriesTest {
+    private static final String LOG_PROPERTY = "theories.test.checkpointLog";
+    private static final String HALT_PROPERTY = "theories.test.haltAt";
+
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File log;
+
+    @Before public void enableCheckpoints() throws IOException {
+        log = temporaryFolder.newFile();
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(Checkpoint.INTERVAL_PROPERTY, "1");
+        System.setProperty(LOG_PROPERTY, log.getPath());
+    }
+
+    @After public void disableCheckpoints() {
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(Checkpoint.INTERVAL_PROPERTY);
+        System.clearProperty(LOG_PROPERTY);
+        System.clearProperty(HALT_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class CrashesPartWayThrough {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6 };
+
+        @Theory(forks = 1) public void logs(int x) throws Exception {
+            if (Integer.getInteger(HALT_PROPERTY, 0) == x) {
+                Runtime.getRuntime().halt(1);
+            }
+            Thread.sleep(5);
+            Files.write(new File(System.getProperty(LOG_PROPERTY)).toPath(), (x + "\n").getBytes(UTF_8),
+                    CREATE, APPEND);
+        }
+    }
+
+    @Test public void resumesAfterCrashFromLastCheckpoint() throws Exception {
+        System.setProperty(HALT_PROPERTY, "4");
+        assertThat(testResult(CrashesPartWayThrough.class), hasSingleFailureContaining("exited with status 1"));
+        assertEquals(Arrays.asList("1", "2", "3"), logged());
+
+        System.clearProperty(HALT_PROPERTY);
+        Files.write(log.toPath(), new byte[0]);
+        assertThat(testResult(CrashesPartWayThrough.class), isSuccessful());
+        assertEquals(Arrays.asList("4", "5", "6"), logged());
+    }
+
+    @Test public void discardsCheckpointWhenRunFinishes() throws Exception {
+        assertThat(testResult(CrashesPartWayThrough.class), isSuccessful());
+        Files.write(log.toPath(), new byte[0]);
+
+        assertThat(testResult(CrashesPartWayThrough.class), isSuccessful());
+        assertThat(logged().size(), is(CrashesPartWayThrough.INTS.length));
+    }
+
+    @Test public void ignoresCheckpointForDifferentDataPoints() throws Exception {
+        Files.write(
+                StateDirectory.resolve("checkpoints", CrashesPartWayThrough.class.getName() + "#logs.checkpoint"),
+                ("theory=" + CrashesPartWayThrough.class.getName() + "#logs\n"
+                        + "fingerprint=stale\n"
+                        + "position=5\n").getBytes(UTF_8));
+
+        assertThat(testResult(CrashesPartWayThrough.class), isSuccessful());
+        assertThat(logged().size(), is(CrashesPartWayThrough.INTS.length));
+    }
+
+    private List<String> logged() throws IOException {
+        return Files.readAllLines(log.toPath(), UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.FailureCollector;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.experimental.results.PrintableResult;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class CollectingAllFailuresTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before public void useTemporaryStateDirectory() {
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+    }
+
+    @After public void clearRetainLimit() {
+        System.clearProperty(FailureCollector.RETAINED_FAILURES_PROPERTY);
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class SeveralFailures {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5 };
+
+        @Theory(collectAllFailures = true) public void smallAndOdd(int x) {
+            if (x == 4) {
+                throw new IllegalStateException("four");
+            }
+            assertTrue(x < 3);
+        }
+    }
+
+    @Test public void reportsEveryFailingAssignment() {
+        PrintableResult result = testResult(SeveralFailures.class);
+
+        assertThat(result, failureCountIs(3));
+        assertThat(result, hasFailureContaining("smallAndOdd(\"3\" <from INTS[2]>)"));
+        assertThat(result, hasFailureContaining("smallAndOdd(\"4\" <from INTS[3]>)"));
+        assertThat(result, hasFailureContaining("smallAndOdd(\"5\" <from INTS[4]>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class StopsAtFirstFailureByDefault {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5 };
+
+        @Theory public void small(int x) {
+            assertTrue(x < 3);
+        }
+    }
+
+    @Test public void reportsOnlyFirstFailureWhenNotCollecting() {
+        assertThat(testResult(StopsAtFirstFailureByDefault.class), hasSingleFailureContaining("\"3\" <from INTS[2]>"));
+    }
+
+    @Test public void spillsFailuresBeyondRetainLimit() throws IOException {
+        System.setProperty(FailureCollector.RETAINED_FAILURES_PROPERTY, "1");
+
+        PrintableResult result = testResult(SeveralFailures.class);
+
+        assertThat(result, failureCountIs(3));
+        assertThat(result, hasFailureContaining("smallAndOdd(\"3\" <from INTS[2]>)"));
+        assertThat(result, hasFailureContaining("1 more failures of java.lang.AssertionError"));
+        assertThat(result, hasFailureContaining("1 more failures of java.lang.IllegalStateException"));
+        assertThat(result.toString(), containsString(".failures"));
+        assertThat(spilled(SeveralFailures.class.getName() + "#smallAndOdd").size(), is(2));
+    }
+
+    @RunWith(Theories.class)
+    public static class MultiLineValues {
+        @DataPoints public static final String[] STRINGS = { "a\nb", "c\nd" };
+
+        @Theory(collectAllFailures = true) public void singleLine(String s) {
+            assertFalse(s.contains("\n"));
+        }
+    }
+
+    @Test public void spillsOneLinePerFailure() throws IOException {
+        System.setProperty(FailureCollector.RETAINED_FAILURES_PROPERTY, "1");
+
+        testResult(MultiLineValues.class);
+
+        List<String> spilled = spilled(MultiLineValues.class.getName() + "#singleLine");
+        assertThat(spilled.size(), is(1));
+        assertThat(spilled.get(0), containsString("singleLine(\"c\\nd\" <from STRINGS[1]>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class FailsThenOverruns {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+
+        @Theory(timeout = 100, collectAllFailures = true) public void sleeps(int x) throws InterruptedException {
+            assertTrue(x > 1);
+            Thread.sleep(40);
+        }
+    }
+
+    @Test public void reportsCollectedFailuresAlongWithTheoryTimeout() {
+        PrintableResult result = testResult(FailsThenOverruns.class);
+
+        assertThat(result, failureCountIs(2));
+        assertThat(result, hasFailureContaining("sleeps(\"1\" <from INTS[0]>)"));
+        assertThat(result, hasFailureContaining("timed out after 100 milliseconds"));
+    }
+
+    private List<String> spilled(String theory) throws IOException {
+        File spilled = new File(temporaryFolder.getRoot(), FailureCollector.DIRECTORY + "/"
+                + theory.replace('$', '_') + ".failures");
+        return Files.readAllLines(spilled.toPath(), UTF_8);
+    }
+}
+
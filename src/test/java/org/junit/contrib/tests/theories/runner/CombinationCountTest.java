@@ -0,0 +1,112 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.TheoryListener;
+import org.junit.contrib.theories.internal.CombinationGuard;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class CombinationCountTest {
+    private final CountingListener listener = new CountingListener();
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    private PrintStream originalErr;
+
+    @Before public void addListener() {
+        Theories.addTheoryListener(listener);
+        originalErr = System.err;
+        System.setErr(new PrintStream(errors, true));
+    }
+
+    @After public void removeListener() {
+        Theories.removeTheoryListener(listener);
+        System.setErr(originalErr);
+        System.clearProperty(CombinationGuard.MAX_PROPERTY);
+        System.clearProperty(CombinationGuard.WARN_PROPERTY);
+    }
+
+    public static class CountingListener extends TheoryListener {
+        final List<String> counted = new ArrayList<>();
+
+        @Override public synchronized void combinationsCounted(Description theory, long combinations) {
+            counted.add(theory.getMethodName() + " " + combinations);
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class ThreeParameters {
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+        @DataPoints public static final String[] STRINGS = { "a", "b" };
+
+        @Theory public void holds(int first, int second, String third) {
+        }
+    }
+
+    @Test public void listenersHearTheCountBeforeTheTheoryRuns() {
+        assertThat(testResult(ThreeParameters.class), isSuccessful());
+
+        assertThat(listener.counted, is(asList("holds 18")));
+    }
+
+    @Test public void failsValidationAboveTheMaximum() {
+        System.setProperty(CombinationGuard.MAX_PROPERTY, "17");
+
+        assertThat(testResult(ThreeParameters.class), hasSingleFailureContaining("#holds has 18 combinations of"
+                + " parameter values, more than the 17 allowed by " + CombinationGuard.MAX_PROPERTY));
+        assertThat(listener.counted, is(Collections.<String>emptyList()));
+    }
+
+    @Test public void warnsAboveTheWarningThreshold() {
+        System.setProperty(CombinationGuard.WARN_PROPERTY, "10");
+        System.setProperty(CombinationGuard.MAX_PROPERTY, "18");
+
+        assertThat(testResult(ThreeParameters.class), isSuccessful());
+        assertThat(errors.toString(), containsString("#holds has 18 combinations of parameter values, more than 10"));
+    }
+
+    @Test public void neitherFailsNorWarnsWithinTheThresholds() {
+        System.setProperty(CombinationGuard.WARN_PROPERTY, "18");
+
+        assertThat(testResult(ThreeParameters.class), isSuccessful());
+        assertThat(errors.toString(), is(""));
+    }
+
+    @RunWith(Theories.class)
+    public static class FreshDataPoints {
+        static final List<Object> seen = new ArrayList<>();
+
+        @DataPoints public static StringBuilder[] builders() {
+            return new StringBuilder[] { new StringBuilder("a"), new StringBuilder("b") };
+        }
+
+        @Theory public void holds(StringBuilder first, StringBuilder second) {
+            seen.add(second);
+        }
+    }
+
+    @Test public void countingLeavesEachPrefixItsOwnDataPoints() {
+        FreshDataPoints.seen.clear();
+
+        assertThat(testResult(FreshDataPoints.class), isSuccessful());
+        assertThat(listener.counted, is(asList("holds 4")));
+        assertThat(FreshDataPoints.seen.size(), is(4));
+        assertNotSame(FreshDataPoints.seen.get(0), FreshDataPoints.seen.get(2));
+        assertNotSame(FreshDataPoints.seen.get(1), FreshDataPoints.seen.get(3));
+    }
+}
@@ -0,0 +1,84 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoint;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.DryRun;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Arrays.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class DryRunTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before public void enableDryRun() {
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(DryRun.ENABLED_PROPERTY, "true");
+        NeverToBeRun.constructed = 0;
+    }
+
+    @After public void disableDryRun() {
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(DryRun.ENABLED_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class NeverToBeRun {
+        static int constructed;
+
+        @DataPoints public static final String[] STRINGS = { "a", "tab\there" };
+
+        @DataPoint public static String expensive() {
+            throw new AssertionError("made a value in a dry run");
+        }
+
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        public NeverToBeRun() {
+            ++constructed;
+        }
+
+        @Theory public void holds(String text, int number) {
+            fail("ran a theory in a dry run");
+        }
+
+        @Test public void test() {
+            fail("ran a test in a dry run");
+        }
+    }
+
+    @Test public void writesEachCombinationWithoutRunningAnything() throws Exception {
+        assertThat(testResult(NeverToBeRun.class), isSuccessful());
+        assertThat(NeverToBeRun.constructed, is(0));
+
+        File written = new File(temporaryFolder.getRoot(),
+                "dry-run/" + NeverToBeRun.class.getName().replace('$', '_') + "#holds.tsv");
+        List<String> lines = Files.readAllLines(written.toPath(), UTF_8);
+        assertThat(lines.get(0), is("# " + NeverToBeRun.class.getName() + "#holds: 6 combinations"));
+        assertThat(lines.get(1), endsWith(": 3 values"));
+        assertThat(lines.get(2), endsWith(": 2 values"));
+        assertThat(lines.subList(3, lines.size()), is(asList(
+                "\"a\" <from STRINGS[0]>\t\"1\" <from INTS[0]>",
+                "\"a\" <from STRINGS[0]>\t\"2\" <from INTS[1]>",
+                "\"tab\\there\" <from STRINGS[1]>\t\"1\" <from INTS[0]>",
+                "\"tab\\there\" <from STRINGS[1]>\t\"2\" <from INTS[1]>",
+                "expensive\t\"1\" <from INTS[0]>",
+                "expensive\t\"2\" <from INTS[1]>")));
+    }
+}
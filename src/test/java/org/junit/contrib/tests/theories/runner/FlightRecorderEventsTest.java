@@ -0,0 +1,98 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.TheoryEvents;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class FlightRecorderEventsTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @RunWith(Theories.class)
+    public static class SixtyFourAssignments {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+        @Theory public void holds(int x, int y) {
+            assertTrue(x + y > 0);
+        }
+    }
+
+    private List<RecordedEvent> record(Class<?> testClass) throws Exception {
+        File file = temporaryFolder.newFile("theories.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.junit.contrib.theories.Theory");
+            recording.enable("org.junit.contrib.theories.Supplier");
+            recording.enable("org.junit.contrib.theories.Assignment");
+            recording.start();
+            assertThat(testResult(testClass), isSuccessful());
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        return RecordingFile.readAllEvents(file.toPath());
+    }
+
+    private static int count(List<RecordedEvent> events, String name) {
+        int count = 0;
+        for (RecordedEvent each : events) {
+            if (each.getEventType().getName().equals(name)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private static RecordedEvent first(List<RecordedEvent> events, String name) {
+        for (RecordedEvent each : events) {
+            if (each.getEventType().getName().equals(name)) {
+                return each;
+            }
+        }
+        throw new AssertionError("no " + name + " event");
+    }
+
+    @Test public void recordsTheoryWithItsCounts() throws Exception {
+        List<RecordedEvent> events = record(SixtyFourAssignments.class);
+
+        assertThat(count(events, "org.junit.contrib.theories.Theory"), is(1));
+        RecordedEvent theory = first(events, "org.junit.contrib.theories.Theory");
+        assertThat(theory.getString("testClass"), is(SixtyFourAssignments.class.getName()));
+        assertThat(theory.getString("method"), is("holds"));
+        assertThat(theory.getLong("executed"), is(64L));
+        assertThat(theory.getLong("succeeded"), is(64L));
+    }
+
+    @Test public void recordsEachSupplierEvaluation() throws Exception {
+        List<RecordedEvent> events = record(SixtyFourAssignments.class);
+
+        // one for x, and one for y under each value of x
+        assertThat(count(events, "org.junit.contrib.theories.Supplier"), is(9));
+        RecordedEvent supplier = first(events, "org.junit.contrib.theories.Supplier");
+        assertThat(supplier.getString("parameter"), is("x"));
+        assertThat(supplier.getInt("values"), is(8));
+    }
+
+    @Test public void samplesAssignments() throws Exception {
+        List<RecordedEvent> events = record(SixtyFourAssignments.class);
+
+        assertThat(count(events, "org.junit.contrib.theories.Assignment"),
+                is(64 / TheoryEvents.DEFAULT_SAMPLE_INTERVAL));
+        RecordedEvent assignment = first(events, "org.junit.contrib.theories.Assignment");
+        assertThat(assignment.getString("outcome"), is("succeeded"));
+        assertThat(assignment.getString("arguments"), containsString("<from INTS["));
+    }
+}
@@ -0,0 +1,162 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.FailureDatabase;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.nio.file.StandardOpenOption.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class ForkedTheoriesTest {
+    private static final String LOG_PROPERTY = "theories.test.forkLog";
+
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @After public void clearLog() {
+        System.clearProperty(LOG_PROPERTY);
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(FailureDatabase.ENABLED_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class LoggingAssignments {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6, 7 };
+
+        @Theory(forks = 3) public void logs(int x) throws IOException {
+            Files.write(new File(System.getProperty(LOG_PROPERTY)).toPath(), (x + "\n").getBytes(UTF_8),
+                    CREATE, APPEND);
+        }
+    }
+
+    @Test public void runsEachAssignmentInExactlyOneWorker() throws Exception {
+        File log = temporaryFolder.newFile();
+        System.setProperty(LOG_PROPERTY, log.getPath());
+
+        assertThat(testResult(LoggingAssignments.class), isSuccessful());
+
+        List<String> logged = new ArrayList<>(Files.readAllLines(log.toPath(), UTF_8));
+        Collections.sort(logged);
+        assertEquals(asStrings(LoggingAssignments.INTS), logged);
+    }
+
+    @RunWith(Theories.class)
+    public static class FailingAssignment {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4 };
+
+        @Theory(forks = 2) public void small(int x) {
+            assertTrue(x < 4);
+        }
+    }
+
+    @Test public void reportsFailingAssignmentFromWorker() {
+        assertThat(testResult(FailingAssignment.class), hasSingleFailureContaining("small(\"4\" <from INTS[3]>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class CrashingAssignment {
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        @Theory(forks = 2) public void halts(int x) {
+            if (x == 2) {
+                Runtime.getRuntime().halt(3);
+            }
+        }
+    }
+
+    @Test public void attributesWorkerCrashToRunningAssignment() {
+        assertThat(
+                testResult(CrashingAssignment.class),
+                allOf(hasSingleFailureContaining("halts(\"2\" <from INTS[1]>)"),
+                        hasFailureContaining("exited with status 3")));
+    }
+
+    @RunWith(Theories.class)
+    public static class CrashingAmongConcurrentAssignments {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6 };
+
+        @Theory(forks = 2, maxConcurrentAssignments = 4) public void halts(int x) throws InterruptedException {
+            if (x == 3) {
+                Runtime.getRuntime().halt(3);
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    @Test public void attributesWorkerCrashToRunningAssignmentWhenAssignmentsMayRunConcurrently() {
+        assertThat(testResult(CrashingAmongConcurrentAssignments.class),
+                hasSingleFailureContaining("halts(\"3\" <from INTS[2]>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class FailingInEveryWorker {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4 };
+
+        @Theory(forks = 2, collectAllFailures = true) public void small(int x) {
+            assertTrue(x < 3);
+        }
+    }
+
+    @Test public void remembersTheFailuresOfEveryWorker() throws Exception {
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(FailureDatabase.ENABLED_PROPERTY, "true");
+
+        assertThat(testResult(FailingInEveryWorker.class), failureCountIs(2));
+
+        File failures = new File(temporaryFolder.getRoot(), "failures/"
+                + FailingInEveryWorker.class.getName().replace('$', '_') + "#small.failures");
+        assertThat(Files.readAllLines(failures.toPath(), UTF_8).size(), is(2));
+    }
+
+    @RunWith(Theories.class)
+    public static class UnsatisfiableAssumptions {
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        @Theory(forks = 2) public void negative(int x) {
+            assumeTrue(x < 0);
+        }
+    }
+
+    @Test public void relaysAssumptionViolations() {
+        assertThat(testResult(UnsatisfiableAssumptions.class), hasSingleFailureContaining("Never found parameters"));
+    }
+
+    @RunWith(Theories.class)
+    public static class LongerThan64KiloBytes {
+        @DataPoints public static final String[] STRINGS = { "short", new String(new char[70000]).replace('\0', 'x') };
+
+        @Theory(forks = 2) public void isShort(String text) {
+            assertTrue(text.length() < 10);
+        }
+    }
+
+    @Test public void relaysValuesWhoseDescriptionsExceedWhatWriteUtfTakes() {
+        assertThat(testResult(LongerThan64KiloBytes.class), hasSingleFailureContaining("<from STRINGS[1]>)"));
+    }
+
+    private static List<String> asStrings(int[] values) {
+        List<String> strings = new ArrayList<>();
+        for (int each : values) {
+            strings.add(String.valueOf(each));
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,127 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoint;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.ClassFileDigest;
+import org.junit.contrib.theories.internal.IncrementalRecord;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class IncrementalTheoriesTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before public void enableIncrementalRecord() {
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(IncrementalRecord.ENABLED_PROPERTY, "true");
+        GrowingValues.values.clear();
+        GrowingValues.values.addAll(Arrays.asList(1, 2, 3));
+        GrowingValues.runs.clear();
+        GrowingValues.broken = false;
+    }
+
+    @After public void disableIncrementalRecord() {
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(IncrementalRecord.ENABLED_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class GrowingValues {
+        static final List<Integer> values = new ArrayList<>();
+        static final List<Integer> runs = new ArrayList<>();
+        static boolean broken;
+
+        @DataPoints public static List<Integer> values() {
+            return new ArrayList<>(values);
+        }
+
+        @Theory public void holds(int x, int y) {
+            runs.add(x * 10 + y);
+            assertFalse(broken && x == 3 && y == 3);
+        }
+    }
+
+    public static class SameTheory {
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        @Theory public void holds(int x) {
+            assertTrue(x > 0);
+        }
+    }
+
+    public static class SameTheoryMoreValues {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 100000 };
+        @DataPoint public static String extra = "extra";
+
+        @Theory public void holds(int x) {
+            assertTrue(x > 0);
+        }
+    }
+
+    public static class ChangedTheory {
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        @Theory public void holds(int x) {
+            assertTrue(x > 1);
+        }
+    }
+
+    @Test public void digestIgnoresDataPointsButNotTheoryBodies() {
+        Set<String> none = Collections.emptySet();
+        String digest = ClassFileDigest.digest(SameTheory.class, none);
+
+        assertEquals(digest, ClassFileDigest.digest(SameTheoryMoreValues.class, none));
+        assertThat(ClassFileDigest.digest(ChangedTheory.class, none), not(digest));
+    }
+
+    @Test public void runsOnlyAssignmentsWithAddedValues() {
+        assertThat(testResult(GrowingValues.class), isSuccessful());
+        assertThat(GrowingValues.runs.size(), is(9));
+
+        GrowingValues.values.add(4);
+        GrowingValues.runs.clear();
+        assertThat(testResult(GrowingValues.class), isSuccessful());
+        assertEquals(Arrays.asList(14, 24, 34, 41, 42, 43, 44), GrowingValues.runs);
+
+        GrowingValues.runs.clear();
+        assertThat(testResult(GrowingValues.class), isSuccessful());
+        assertThat(GrowingValues.runs.size(), is(0));
+    }
+
+    @Test public void recordsNothingUntilTheoryHolds() {
+        GrowingValues.broken = true;
+        assertThat(testResult(GrowingValues.class), failureCountIs(1));
+
+        GrowingValues.broken = false;
+        GrowingValues.runs.clear();
+        assertThat(testResult(GrowingValues.class), isSuccessful());
+        assertThat(GrowingValues.runs.size(), is(9));
+    }
+
+    @Test public void runsEverythingWhenDisabled() {
+        System.clearProperty(IncrementalRecord.ENABLED_PROPERTY);
+        testResult(GrowingValues.class);
+
+        GrowingValues.values.add(4);
+        GrowingValues.runs.clear();
+        assertThat(testResult(GrowingValues.class), isSuccessful());
+        assertThat(GrowingValues.runs.size(), is(16));
+    }
+}
@@ -0,0 +1,94 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.LatencyReport;
+import org.junit.contrib.theories.internal.Reports;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class LatencyReportTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    private PrintStream originalErr;
+
+    @Before public void enableReports() {
+        originalErr = System.err;
+        System.setErr(new PrintStream(errors, true));
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(LatencyReport.ENABLED_PROPERTY, "true");
+        System.setProperty(LatencyReport.SLOWEST_PROPERTY, "2");
+    }
+
+    @After public void disableReports() {
+        System.setErr(originalErr);
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(LatencyReport.ENABLED_PROPERTY);
+        System.clearProperty(LatencyReport.SLOWEST_PROPERTY);
+        System.clearProperty(Reports.STANDARD_ERROR_PROPERTY);
+    }
+
+    private File reportFile() {
+        return new File(temporaryFolder.getRoot(), LatencyReport.DIRECTORY + "/"
+                + PathologicalInputs.class.getName().replace('$', '_') + "#holds.txt");
+    }
+
+    @RunWith(Theories.class)
+    public static class PathologicalInputs {
+        @DataPoints public static final String[] INPUTS = { "a", "b", "slow", "c", "slower", "d" };
+
+        @Theory public void holds(String input) throws InterruptedException {
+            if (input.startsWith("slow")) {
+                Thread.sleep(input.length() * 10);
+            }
+        }
+    }
+
+    @Test public void reportsPercentilesAndSlowestAssignments() throws IOException {
+        assertThat(testResult(PathologicalInputs.class), isSuccessful());
+
+        String[] lines = new String(Files.readAllBytes(reportFile().toPath()), UTF_8).trim().split("\\r?\\n");
+        assertThat(lines.length, is(3));
+        assertThat(lines[0], containsString(PathologicalInputs.class.getName() + "#holds: 6 assignments, p50 "));
+        assertThat(lines[0], containsString(" p99 "));
+        assertThat(lines[0], containsString(" max "));
+        assertThat(lines[1], containsString("(\"slower\" <from INPUTS[4]>)"));
+        assertThat(lines[2], containsString("(\"slow\" <from INPUTS[2]>)"));
+    }
+
+    @Test public void printsToStandardErrorOnlyWhenAsked() throws IOException {
+        testResult(PathologicalInputs.class);
+        assertThat(errors.toString(), is(""));
+
+        System.setProperty(Reports.STANDARD_ERROR_PROPERTY, "true");
+        testResult(PathologicalInputs.class);
+        assertThat(errors.toString(), is(new String(Files.readAllBytes(reportFile().toPath()), UTF_8)));
+    }
+
+    @Test public void reportsNothingWhenDisabled() {
+        System.clearProperty(LatencyReport.ENABLED_PROPERTY);
+
+        testResult(PathologicalInputs.class);
+
+        assertThat(reportFile().exists(), is(false));
+    }
+}
@@ -0,0 +1,89 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.TheoryMonitor;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+public class MonitoringTheoriesTest {
+    private static final MBeanServer SERVER = ManagementFactory.getPlatformMBeanServer();
+
+    @Before public void clearRuns() {
+        StoppedPartWay.runs.clear();
+        StoppedPartWay.seen.clear();
+    }
+
+    @After public void restoreConcurrency() {
+        TheoryMonitor.get().setMaxConcurrentAssignments(0);
+    }
+
+    @RunWith(Theories.class)
+    public static class StoppedPartWay {
+        static final List<Integer> runs = new ArrayList<>();
+        static final List<Object> seen = new ArrayList<>();
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5 };
+
+        @Theory public void holds(int x) throws Exception {
+            runs.add(x);
+            ObjectName monitor = new ObjectName(TheoryMonitor.OBJECT_NAME);
+            seen.add(SERVER.getAttribute(monitor, "CurrentTheory"));
+            seen.add(SERVER.getAttribute(monitor, "Executed"));
+            if (x == 3) {
+                SERVER.invoke(monitor, "stopCurrentTheory", new Object[0], new String[0]);
+            }
+        }
+    }
+
+    @Test public void showsCurrentTheory() {
+        JUnitCore.runClasses(StoppedPartWay.class);
+
+        assertThat(StoppedPartWay.seen.get(0), is((Object) (StoppedPartWay.class.getName() + "#holds")));
+        assertThat(StoppedPartWay.seen.get(1), is((Object) 1L));
+        assertThat(StoppedPartWay.seen.get(5), is((Object) 3L));
+    }
+
+    @Test public void stopsTheoryKeepingItSkipped() {
+        final List<Failure> skipped = new ArrayList<>();
+        JUnitCore core = new JUnitCore();
+        core.addListener(new RunListener() {
+            @Override public void testAssumptionFailure(Failure failure) {
+                skipped.add(failure);
+            }
+        });
+        Result result = core.run(StoppedPartWay.class);
+
+        assertTrue(result.wasSuccessful());
+        assertThat(StoppedPartWay.runs.size(), is(3));
+        assertThat(skipped.size(), is(1));
+        assertThat(skipped.get(0).getMessage(), containsString("stopped after 3 assignments"));
+    }
+
+    @Test public void overridesConcurrencyOfTheoriesStartedLater() throws Exception {
+        JUnitCore.runClasses(StoppedPartWay.class);
+        SERVER.setAttribute(new ObjectName(TheoryMonitor.OBJECT_NAME), new Attribute("MaxConcurrentAssignments", 4));
+
+        assertThat(TheoryMonitor.get().maxConcurrentAssignments(1), is(4));
+        assertThat(SERVER.getAttribute(new ObjectName(TheoryMonitor.OBJECT_NAME), "MaxConcurrentAssignments"),
+                is((Object) 4));
+    }
+}
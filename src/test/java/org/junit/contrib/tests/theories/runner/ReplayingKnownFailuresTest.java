@@ -0,0 +1,168 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.FailureDatabase;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.contrib.theories.suppliers.TestedOn;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class ReplayingKnownFailuresTest {
+    private static final String FAILING_ASSIGNMENT = "holds(\"4\" <from INTS[3]>, \"2\" <from INTS[1]>)";
+
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before public void enableFailureDatabase() {
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(FailureDatabase.ENABLED_PROPERTY, "true");
+        SometimesBroken.runs.clear();
+        SometimesBroken.broken = true;
+        BrokenOnOneOfSeveralValuesFromOneSource.runs.clear();
+        BrokenOnAValueThatMoves.runs.clear();
+        BrokenOnAValueThatMoves.values = new int[] { 1, 2, 3 };
+        BrokenAsynchronously.runs.clear();
+    }
+
+    @After public void disableFailureDatabase() {
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(FailureDatabase.ENABLED_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class SometimesBroken {
+        static final List<Integer> runs = new ArrayList<>();
+        static boolean broken;
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5 };
+
+        @Theory public void holds(int x, int y) {
+            runs.add(x * 10 + y);
+            assertFalse(broken && x == 4 && y == 2);
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class BrokenOnOneOfSeveralValuesFromOneSource {
+        static final List<Integer> runs = new ArrayList<>();
+
+        @Theory public void holds(@TestedOn(ints = { 1, 2, 3 }) int x) {
+            runs.add(x);
+            assertFalse(x == 2);
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class BrokenOnAValueThatMoves {
+        static final List<Integer> runs = new ArrayList<>();
+        static int[] values;
+
+        @DataPoints public static int[] ints() {
+            return values;
+        }
+
+        @Theory public void holds(int x) {
+            runs.add(x);
+            assertFalse(x == 2);
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class BrokenAsynchronously {
+        static final List<Integer> runs = new ArrayList<>();
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        @Theory public CompletableFuture<Void> holds(int x) {
+            runs.add(x);
+            CompletableFuture<Void> completion = new CompletableFuture<>();
+            if (x == 1) {
+                completion.complete(null);
+            } else {
+                completion.completeExceptionally(new AssertionError(x));
+            }
+            return completion;
+        }
+    }
+
+    @Test public void replaysKnownFailureFirst() {
+        assertThat(testResult(SometimesBroken.class), hasSingleFailureContaining(FAILING_ASSIGNMENT));
+        assertThat(SometimesBroken.runs.size(), is(17));
+
+        SometimesBroken.runs.clear();
+        assertThat(testResult(SometimesBroken.class), hasSingleFailureContaining(FAILING_ASSIGNMENT));
+        assertEquals(Arrays.asList(42), SometimesBroken.runs);
+    }
+
+    @Test public void forgetsFailureOnceItPasses() {
+        testResult(SometimesBroken.class);
+        SometimesBroken.broken = false;
+
+        SometimesBroken.runs.clear();
+        assertThat(testResult(SometimesBroken.class), isSuccessful());
+        assertThat(SometimesBroken.runs.get(0), is(42));
+        assertThat(SometimesBroken.runs.size(), is(25));
+        assertFalse(new File(temporaryFolder.getRoot(), "failures").list().length > 0);
+
+        SometimesBroken.runs.clear();
+        assertThat(testResult(SometimesBroken.class), isSuccessful());
+        assertThat(SometimesBroken.runs.get(0), is(11));
+    }
+
+    @Test public void replaysTheFailingValueAmongSeveralFromOneSource() {
+        testResult(BrokenOnOneOfSeveralValuesFromOneSource.class);
+
+        BrokenOnOneOfSeveralValuesFromOneSource.runs.clear();
+        assertThat(testResult(BrokenOnOneOfSeveralValuesFromOneSource.class),
+                hasSingleFailureContaining("holds(\"2\" <from ints>)"));
+        assertEquals(Arrays.asList(2), BrokenOnOneOfSeveralValuesFromOneSource.runs);
+    }
+
+    @Test public void replaysTheFailingValueAfterADataPointIsInsertedBeforeIt() {
+        testResult(BrokenOnAValueThatMoves.class);
+        BrokenOnAValueThatMoves.values = new int[] { 0, 1, 2, 3 };
+
+        BrokenOnAValueThatMoves.runs.clear();
+        assertThat(testResult(BrokenOnAValueThatMoves.class), hasSingleFailureContaining("holds(\"2\" <from ints[2]>)"));
+        assertEquals(Arrays.asList(2), BrokenOnAValueThatMoves.runs);
+    }
+
+    @Test public void remembersKnownFailureTurnedAwayByAnEarlierOnesAsynchronousFailure() throws IOException {
+        File failures = new File(temporaryFolder.getRoot(), "failures/"
+                + BrokenAsynchronously.class.getName().replace('$', '_') + "#holds.failures");
+        assertTrue(failures.getParentFile().mkdirs());
+        Files.write(failures.toPath(), Arrays.asList("\"2\" <from INTS[1]>", "\"3\" <from INTS[2]>"), UTF_8);
+
+        assertThat(testResult(BrokenAsynchronously.class), hasSingleFailureContaining("holds(\"2\" <from INTS[1]>)"));
+        assertEquals(Arrays.asList(2), BrokenAsynchronously.runs);
+        assertThat(Files.readAllLines(failures.toPath(), UTF_8), hasItem("\"3\" <from INTS[2]>"));
+    }
+
+    @Test public void remembersNothingWhenDisabled() {
+        System.clearProperty(FailureDatabase.ENABLED_PROPERTY);
+        testResult(SometimesBroken.class);
+
+        SometimesBroken.runs.clear();
+        testResult(SometimesBroken.class);
+        assertThat(SometimesBroken.runs.get(0), is(11));
+    }
+}
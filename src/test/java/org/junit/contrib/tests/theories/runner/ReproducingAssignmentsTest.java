@@ -0,0 +1,158 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.ParameterizedAssertionError;
+import org.junit.contrib.theories.internal.ReproductionToken;
+import org.junit.contrib.theories.suppliers.TestedOn;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class ReproducingAssignmentsTest {
+    @Before public void clearRuns() {
+        FailsDeepInside.runs.clear();
+        FailsOnOneOfSeveralValuesFromOneSource.runs.clear();
+        FailsOnALongString.runs.clear();
+    }
+
+    @After public void clearReproduction() {
+        System.clearProperty(ReproductionToken.PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class FailsDeepInside {
+        static final List<Integer> runs = new ArrayList<>();
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5 };
+
+        public FailsDeepInside(int base) {
+            runs.add(base * 100);
+        }
+
+        @Theory public void holds(int x, int y) {
+            runs.add(x * 10 + y);
+            assertFalse(x == 4 && y == 2);
+        }
+
+        @Theory public void alsoHolds(int x) {
+            runs.add(-x);
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class FailsOnOneOfSeveralValuesFromOneSource {
+        static final List<Integer> runs = new ArrayList<>();
+
+        @Theory public void holds(@TestedOn(ints = { 1, 2, 3 }) int x) {
+            runs.add(x);
+            assertFalse(x == 2);
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class FailsOnValuesThatCannotBeToldApart {
+        @Theory public void holds(@TestedOn(ints = { 2, 2 }) int x) {
+            assertFalse(x == 2);
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class FailsOnALongString {
+        static final List<Integer> runs = new ArrayList<>();
+
+        @DataPoints public static final String[] STRINGS = { "short", longString() };
+
+        private static String longString() {
+            char[] chars = new char[10000];
+            Arrays.fill(chars, 'x');
+            return new String(chars);
+        }
+
+        @Theory public void holds(String s) {
+            runs.add(s.length());
+            assertTrue(s.length() < 100);
+        }
+    }
+
+    private static String reproductionTokenOfOnlyFailure() {
+        return reproductionTokenOfOnlyFailure(FailsDeepInside.class);
+    }
+
+    private static String reproductionTokenOfOnlyFailure(Class<?> type) {
+        Result result = JUnitCore.runClasses(type);
+        assertThat(result.getFailureCount(), is(1));
+        return ((ParameterizedAssertionError) result.getFailures().get(0).getException()).getReproductionToken();
+    }
+
+    @Test public void failureTellsHowToRunItAlone() {
+        String token = reproductionTokenOfOnlyFailure();
+
+        assertThat(token, notNullValue());
+        assertThat(testResult(FailsDeepInside.class),
+                hasSingleFailureContaining("-D" + ReproductionToken.PROPERTY + "=" + token));
+    }
+
+    @Test public void runsOnlyTheNamedAssignment() {
+        String token = reproductionTokenOfOnlyFailure();
+
+        System.setProperty(ReproductionToken.PROPERTY, token);
+        FailsDeepInside.runs.clear();
+        Result result = JUnitCore.runClasses(FailsDeepInside.class);
+
+        assertThat(result.getFailureCount(), is(1));
+        assertThat(result.getFailures().get(0).getMessage(), containsString("holds(\"1\" <from INTS[0]>, "
+                + "\"4\" <from INTS[3]>, \"2\" <from INTS[1]>)"));
+        assertThat(result.getIgnoreCount(), is(1));
+        assertEquals(Arrays.asList(100, 42), FailsDeepInside.runs);
+    }
+
+    @Test public void tellsApartValuesFromTheSameSource() {
+        String token = reproductionTokenOfOnlyFailure(FailsOnOneOfSeveralValuesFromOneSource.class);
+
+        System.setProperty(ReproductionToken.PROPERTY, token);
+        FailsOnOneOfSeveralValuesFromOneSource.runs.clear();
+        Result result = JUnitCore.runClasses(FailsOnOneOfSeveralValuesFromOneSource.class);
+
+        assertThat(result.getFailureCount(), is(1));
+        assertEquals(Arrays.asList(2), FailsOnOneOfSeveralValuesFromOneSource.runs);
+    }
+
+    @Test public void namesValuesBySourceAndIndexRatherThanByDescription() {
+        String token = reproductionTokenOfOnlyFailure(FailsOnALongString.class);
+
+        assertTrue(token, token.length() < 200);
+
+        System.setProperty(ReproductionToken.PROPERTY, token);
+        FailsOnALongString.runs.clear();
+        Result result = JUnitCore.runClasses(FailsOnALongString.class);
+
+        assertThat(result.getFailureCount(), is(1));
+        assertEquals(Arrays.asList(10000), FailsOnALongString.runs);
+    }
+
+    @Test public void givesNoTokenForValuesThatCannotBeToldApart() {
+        assertThat(reproductionTokenOfOnlyFailure(FailsOnValuesThatCannotBeToldApart.class), nullValue());
+        assertThat(testResult(FailsOnValuesThatCannotBeToldApart.class),
+                not(hasFailureContaining(ReproductionToken.PROPERTY)));
+    }
+
+    @Test public void failsOnMalformedToken() {
+        System.setProperty(ReproductionToken.PROPERTY, "not a token");
+
+        assertThat(testResult(FailsDeepInside.class), hasFailureContaining("is not a reproduction token"));
+    }
+}
@@ -0,0 +1,74 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.ResourceAccounting;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class ResourceAccountingTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before public void enableAccounting() {
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(ResourceAccounting.ENABLED_PROPERTY, "true");
+    }
+
+    @After public void disableAccounting() {
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(ResourceAccounting.ENABLED_PROPERTY);
+    }
+
+    private File reportFile() {
+        return new File(temporaryFolder.getRoot(), ResourceAccounting.DIRECTORY + "/"
+                + OneHungryValue.class.getName().replace('$', '_') + "#holds.txt");
+    }
+
+    @RunWith(Theories.class)
+    public static class OneHungryValue {
+        @DataPoints public static final int[] SIZES = { 1, 2, 3, 4_000_000, 5, 6, 7, 8 };
+
+        public static volatile byte[] kept;
+
+        @Theory public void holds(int size) {
+            kept = new byte[size];
+        }
+    }
+
+    @Test public void flagsAssignmentsAllocatingFarAboveTheMedian() throws IOException {
+        assertThat(testResult(OneHungryValue.class), isSuccessful());
+
+        String report = new String(Files.readAllBytes(reportFile().toPath()), UTF_8);
+        String[] lines = report.trim().split("\\r?\\n");
+        assertThat(lines[0], containsString(OneHungryValue.class.getName() + "#holds: 8 assignments allocated "));
+        assertThat(lines[0], containsString(" ms CPU"));
+        assertThat(lines[1], containsString("allocated by assignments of \"4000000\" <from SIZES[3]> as argument 1"));
+        assertThat(lines[lines.length - 1], containsString("the median: "));
+        assertThat(lines[lines.length - 1], containsString("(\"4000000\" <from SIZES[3]>)"));
+        assertThat(report.split("the median").length, is(2));
+    }
+
+    @Test public void reportsNothingWhenDisabled() {
+        System.clearProperty(ResourceAccounting.ENABLED_PROPERTY);
+
+        testResult(OneHungryValue.class);
+
+        assertThat(reportFile().exists(), is(false));
+    }
+}
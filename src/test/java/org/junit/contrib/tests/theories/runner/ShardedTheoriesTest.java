@@ -0,0 +1,132 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.TheoryListener;
+import org.junit.contrib.theories.TheoryMetrics;
+import org.junit.contrib.theories.internal.Shard;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class ShardedTheoriesTest {
+    @After public void clearShard() {
+        System.clearProperty(Shard.SHARD_PROPERTY);
+        System.clearProperty(Shard.SHARD_MODE_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class Pairs {
+        static final List<Integer> ordinals = new ArrayList<>();
+
+        @DataPoints public static final int[] INTS = { 0, 1, 2, 3, 4 };
+
+        @Theory public void pair(int x, int y) {
+            ordinals.add(x * INTS.length + y);
+        }
+    }
+
+    @Test public void moduloShardsPartitionAssignments() {
+        List<Integer> all = new ArrayList<>();
+        for (int shard = 1; shard <= 4; shard++) {
+            List<Integer> ordinals = runShard(shard + "/4");
+            for (int each : ordinals) {
+                assertEquals(shard - 1, each % 4);
+            }
+            all.addAll(ordinals);
+        }
+
+        assertEquals(range(0, 25), sorted(all));
+    }
+
+    @Test public void moduloShardGeneratesOnlyItsOwnAssignments() {
+        final AtomicLong generated = new AtomicLong();
+        TheoryListener listener = new TheoryListener() {
+            @Override public void theoryFinished(Description theory, TheoryMetrics metrics) {
+                generated.set(metrics.getGenerated());
+            }
+        };
+
+        Theories.addTheoryListener(listener);
+        try {
+            assertThat(runShard("2/4"), is(asList(1, 5, 9, 13, 17, 21)));
+        } finally {
+            Theories.removeTheoryListener(listener);
+        }
+        assertThat(generated.get(), is(6L));
+    }
+
+    @Test public void rangeShardsPartitionAssignmentsContiguously() {
+        System.setProperty(Shard.SHARD_MODE_PROPERTY, "range");
+
+        List<Integer> all = new ArrayList<>();
+        for (int shard = 1; shard <= 3; shard++) {
+            List<Integer> ordinals = runShard(shard + "/3");
+            assertFalse(ordinals.isEmpty());
+            assertEquals(range(ordinals.get(0), ordinals.get(0) + ordinals.size()), ordinals);
+            all.addAll(ordinals);
+        }
+
+        assertEquals(range(0, 25), all);
+    }
+
+    @Test public void shardWithoutAssignmentsSucceeds() {
+        assertThat(runShard("26/30"), is(range(0, 0)));
+    }
+
+    @RunWith(Theories.class)
+    public static class UnsatisfiableInOneShard {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4 };
+
+        @Theory public void even(int x) {
+            assumeTrue(x % 2 == 0);
+        }
+    }
+
+    @Test public void doesNotRequireEveryShardToSatisfyAssumptions() {
+        System.setProperty(Shard.SHARD_PROPERTY, "1/2");
+
+        assertThat(testResult(UnsatisfiableInOneShard.class), isSuccessful());
+    }
+
+    @Test public void rejectsMalformedShard() {
+        System.setProperty(Shard.SHARD_PROPERTY, "3");
+
+        assertThat(testResult(Pairs.class), hasSingleFailureContaining("theories.shard should be of the form k/n"));
+    }
+
+    private static List<Integer> runShard(String shard) {
+        System.setProperty(Shard.SHARD_PROPERTY, shard);
+        Pairs.ordinals.clear();
+
+        assertThat(testResult(Pairs.class), isSuccessful());
+        return new ArrayList<>(Pairs.ordinals);
+    }
+
+    private static List<Integer> range(int start, int end) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static List<Integer> sorted(List<Integer> values) {
+        List<Integer> copy = new ArrayList<>(values);
+        copy.sort(null);
+        return copy;
+    }
+}
@@ -0,0 +1,130 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.contrib.theories.BeforePrefix;
+import org.junit.contrib.theories.DataPoint;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.ParameterSignature;
+import org.junit.contrib.theories.Shrinker;
+import org.junit.contrib.theories.ShrinksWith;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.AssignmentShrinker;
+import org.junit.experimental.results.PrintableResult;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class ShrinkingFailuresTest {
+    @After public void clearBudget() {
+        System.clearProperty(AssignmentShrinker.ATTEMPTS_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class NoLongStrings {
+        @DataPoints public static final String[] STRINGS = { "a", "abcdefghij", "abcdef", "ab" };
+
+        @Theory(shrinkFailures = true) public void shortStrings(String s) {
+            assertTrue(s.length() < 3);
+        }
+    }
+
+    @Test public void reportsSmallestFailingValueFromSameSource() {
+        PrintableResult result = testResult(NoLongStrings.class);
+
+        assertThat(result, hasSingleFailureContaining("shortStrings(\"abc\" <from STRINGS[2], shrunk>)"));
+        assertThat(result.toString(), containsString("shrunk from shortStrings(\"abcdefghij\" <from STRINGS[1]>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class SumsStayBelowLimit {
+        @DataPoints public static final int[] INTS = { 1, 500, 70, 2 };
+
+        @Theory(shrinkFailures = true) public void small(int x, int y) {
+            if (x + y >= 100) {
+                throw new IllegalStateException("too big");
+            }
+        }
+    }
+
+    @Test public void shrinksEachParameterInTurn() {
+        assertThat(testResult(SumsStayBelowLimit.class),
+                hasSingleFailureContaining("small(\"0\" <from INTS[0], shrunk>, \"100\" <from INTS[1], shrunk>)"));
+    }
+
+    @Test public void reportsOriginalFailureWhenBudgetIsSpent() {
+        System.setProperty(AssignmentShrinker.ATTEMPTS_PROPERTY, "0");
+
+        assertThat(testResult(SumsStayBelowLimit.class),
+                hasSingleFailureContaining("small(\"1\" <from INTS[0]>, \"500\" <from INTS[1]>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class FailsWithinPrefixFixture {
+        static String loaded;
+
+        @DataPoints public static final String[] FILES = { "abcdef" };
+        @DataPoints public static final int[] INTS = { 50 };
+
+        @BeforePrefix public static void load(String file) {
+            loaded = file;
+        }
+
+        @Theory(shrinkFailures = true) public void small(String file, int x) {
+            assertTrue(loaded.equals(file) && x < 10);
+        }
+    }
+
+    @Test public void leavesParametersTakenByPrefixFixturesAsTheyAre() {
+        assertThat(testResult(FailsWithinPrefixFixture.class),
+                hasSingleFailureContaining("small(\"abcdef\" <from FILES[0]>, \"10\" <from INTS[0], shrunk>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class DistinctFailures {
+        @DataPoints public static final String[] STRINGS = { "abcdef" };
+
+        @Theory(shrinkFailures = true) public void fails(String s) {
+            if (s.length() > 3) {
+                throw new IllegalArgumentException(s);
+            }
+            throw new IllegalStateException(s);
+        }
+    }
+
+    @Test public void keepsOnlyCandidatesFailingTheSameWay() {
+        assertThat(testResult(DistinctFailures.class),
+                hasSingleFailureContaining("fails(\"cdef\" <from STRINGS[0], shrunk>)"));
+    }
+
+    public static class DropFirstElement extends Shrinker {
+        @Override public List<?> shrink(Object value, ParameterSignature sig) {
+            List<?> list = (List<?>) value;
+            return list.isEmpty() ? list : Arrays.asList(new ArrayList<>(list.subList(1, list.size())));
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class CustomShrinker {
+        @DataPoint public static List<Integer> descending() {
+            return Arrays.asList(5, 4, 3, 2, 1);
+        }
+
+        @Theory(shrinkFailures = true) public void noThree(@ShrinksWith(DropFirstElement.class) List<Integer> list) {
+            assertFalse(list.contains(3));
+        }
+    }
+
+    @Test public void usesShrinkerNamedByParameter() {
+        assertThat(testResult(CustomShrinker.class),
+                hasSingleFailureContaining("noThree(\"[3, 2, 1]\" <from descending, shrunk>)"));
+    }
+}
@@ -0,0 +1,118 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoint;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.ParameterSignature;
+import org.junit.contrib.theories.ParameterSupplier;
+import org.junit.contrib.theories.ParametersSuppliedBy;
+import org.junit.contrib.theories.PotentialAssignment;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.contrib.theories.internal.SupplierProfile;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class SupplierProfileTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before public void enableProfiling() {
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(SupplierProfile.ENABLED_PROPERTY, "true");
+    }
+
+    @After public void disableProfiling() {
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(SupplierProfile.ENABLED_PROPERTY);
+    }
+
+    private File profileFile() {
+        return profileFile(EverySource.class);
+    }
+
+    private File profileFile(Class<?> testClass) {
+        return new File(temporaryFolder.getRoot(), SupplierProfile.DIRECTORY + "/"
+                + testClass.getName().replace('$', '_') + ".txt");
+    }
+
+    public static class Suffixes extends ParameterSupplier {
+        @Override public List<PotentialAssignment> getValueSources(ParameterSignature sig) {
+            return Arrays.asList(PotentialAssignment.forValue("!", "!"), PotentialAssignment.forValue("?", "?"));
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class EverySource {
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        @DataPoint public static int four() {
+            return 4;
+        }
+
+        @DataPoints public static String[] strings() {
+            return new String[] { "a", "b" };
+        }
+
+        @Theory public void holds(int count, String text, @ParametersSuppliedBy(Suffixes.class) String suffix) {
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class ThrowingDataPoint {
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        @DataPoint(ignoredExceptions = IllegalStateException.class) public static int unavailable() {
+            throw new IllegalStateException();
+        }
+
+        @Theory public void holds(int x) {
+        }
+    }
+
+    @Test public void countsInvocationsAndValuesOfEachSource() throws IOException {
+        assertThat(testResult(EverySource.class), isSuccessful());
+
+        String report = new String(Files.readAllBytes(profileFile().toPath()), UTF_8);
+        assertThat(report, startsWith(EverySource.class.getName() + " data point sources:"));
+        // each parameter's values are listed once for each prefix
+        assertThat(report, containsString("@DataPoints field INTS: 5 invocations, "));
+        assertThat(report, containsString(" ms, 3 values"));
+        assertThat(report, containsString("@DataPoints method strings(): 4 invocations, "));
+        assertThat(report, containsString(" ms, 8 values"));
+        assertThat(report, containsString("@ParametersSuppliedBy " + Suffixes.class.getName() + ": 8 invocations, "));
+        assertThat(report, containsString(" ms, 16 values"));
+        assertThat(report, containsString("@DataPoint method four(): "));
+    }
+
+    @Test public void countsDataPointMethodsThatThrow() throws IOException {
+        assertThat(testResult(ThrowingDataPoint.class), isSuccessful());
+
+        String report = new String(Files.readAllBytes(profileFile(ThrowingDataPoint.class).toPath()), UTF_8);
+        assertThat(report, containsString("@DataPoint method unavailable(): 1 invocations, "));
+        assertThat(report, containsString(" ms, 0 values"));
+    }
+
+    @Test public void reportsNothingWhenDisabled() {
+        System.clearProperty(SupplierProfile.ENABLED_PROPERTY);
+
+        testResult(EverySource.class);
+
+        assertThat(profileFile().exists(), is(false));
+    }
+}
@@ -0,0 +1,109 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.TheoryListener;
+import org.junit.contrib.theories.TheoryMetrics;
+import org.junit.contrib.theories.internal.TheoryListeners;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class TheoryMetricsTest {
+    private final RecordingListener listener = new RecordingListener();
+
+    @Before public void addListener() {
+        NamedListener.made.clear();
+        Theories.addTheoryListener(listener);
+    }
+
+    @After public void removeListener() {
+        Theories.removeTheoryListener(listener);
+        System.clearProperty(TheoryListeners.LISTENERS_PROPERTY);
+    }
+
+    public static class RecordingListener extends TheoryListener {
+        final List<Description> started = new ArrayList<>();
+        final List<TheoryMetrics> finished = new ArrayList<>();
+
+        @Override public synchronized void theoryStarted(Description theory) {
+            started.add(theory);
+        }
+
+        @Override public synchronized void theoryFinished(Description theory, TheoryMetrics metrics) {
+            finished.add(metrics);
+        }
+    }
+
+    public static class NamedListener extends RecordingListener {
+        static final List<NamedListener> made = new ArrayList<>();
+
+        public NamedListener() {
+            made.add(this);
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class MixedOutcomes {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5 };
+
+        @Before public void setUp() throws InterruptedException {
+            Thread.sleep(1);
+        }
+
+        @Theory(collectAllFailures = true) public void holds(int x) throws InterruptedException {
+            Thread.sleep(1);
+            assumeTrue(x != 1);
+            assertTrue(x < 4);
+        }
+
+        @Test public void notATheory() {
+        }
+    }
+
+    @Test public void countsOutcomesOfEachAssignment() {
+        assertThat(testResult(MixedOutcomes.class), failureCountIs(2));
+
+        assertThat(listener.started.size(), is(1));
+        assertThat(listener.started.get(0).getMethodName(), is("holds"));
+        assertThat(listener.started.get(0).getTestClass(), equalTo((Object) MixedOutcomes.class));
+
+        TheoryMetrics metrics = listener.finished.get(0);
+        assertThat(metrics.getGenerated(), is(5L));
+        assertThat(metrics.getExecuted(), is(5L));
+        assertThat(metrics.getSucceeded(), is(2L));
+        assertThat(metrics.getAssumptionViolations(), is(1L));
+        assertThat(metrics.getFailed(), is(2L));
+    }
+
+    @Test public void splitsTimeBetweenFixturesAndBodies() {
+        testResult(MixedOutcomes.class);
+
+        TheoryMetrics metrics = listener.finished.get(0);
+        assertTrue(metrics.getFixtureNanos() >= 5000000L);
+        assertTrue(metrics.getBodyNanos() >= 5000000L);
+        assertTrue(metrics.getElapsedNanos() >= metrics.getFixtureNanos() + metrics.getBodyNanos());
+    }
+
+    @Test public void makesListenersNamedBySystemProperty() {
+        System.setProperty(TheoryListeners.LISTENERS_PROPERTY, NamedListener.class.getName());
+
+        testResult(MixedOutcomes.class);
+        testResult(MixedOutcomes.class);
+
+        assertThat(NamedListener.made.size(), is(1));
+        assertThat(NamedListener.made.get(0).finished.size(), is(2));
+    }
+}
@@ -0,0 +1,93 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.TheoryListener;
+import org.junit.contrib.theories.internal.TheoryProgress;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class TheoryProgressTest {
+    private final ProgressListener listener = new ProgressListener();
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    private PrintStream originalErr;
+
+    @Before public void captureErrors() {
+        Theories.addTheoryListener(listener);
+        originalErr = System.err;
+        System.setErr(new PrintStream(errors, true));
+        System.setProperty(TheoryProgress.INTERVAL_PROPERTY, "40");
+    }
+
+    @After public void restoreErrors() {
+        Theories.removeTheoryListener(listener);
+        System.setErr(originalErr);
+        System.clearProperty(TheoryProgress.INTERVAL_PROPERTY);
+        System.clearProperty(TheoryProgress.SINK_PROPERTY);
+    }
+
+    public static class ProgressListener extends TheoryListener {
+        final List<long[]> reports = new ArrayList<>();
+
+        @Override public synchronized void theoryProgressed(Description theory, long done, long combinations,
+                long etaMillis) {
+            reports.add(new long[] { done, combinations, etaMillis });
+        }
+    }
+
+    @RunWith(Theories.class)
+    public static class Slow {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+
+        @Theory public void holds(int first, int second) throws InterruptedException {
+            if (second == 1) {
+                Thread.sleep(30);
+            }
+        }
+    }
+
+    @Test public void printsProgressLinesToStandardError() {
+        assertThat(testResult(Slow.class), isSuccessful());
+
+        String firstLine = errors.toString().split("\\r?\\n")[0];
+        assertThat(firstLine, containsString(Slow.class.getName() + "#holds: "));
+        assertThat(firstLine, containsString("/100 combinations ("));
+        assertThat(firstLine, containsString("/s, ETA "));
+        assertThat(listener.reports.isEmpty(), is(true));
+    }
+
+    @Test public void handsProgressToListenersInstead() {
+        System.setProperty(TheoryProgress.SINK_PROPERTY, TheoryProgress.LISTENERS);
+
+        assertThat(testResult(Slow.class), isSuccessful());
+
+        assertThat(errors.toString(), is(""));
+        assertThat(listener.reports.isEmpty(), is(false));
+        long[] first = listener.reports.get(0);
+        assertThat(first[1], is(100L));
+        assertTrue(first[0] <= 100);
+    }
+
+    @Test public void reportsNothingUnlessAnIntervalIsGiven() {
+        System.clearProperty(TheoryProgress.INTERVAL_PROPERTY);
+
+        assertThat(testResult(Slow.class), isSuccessful());
+
+        assertThat(errors.toString(), is(""));
+        assertThat(listener.reports.isEmpty(), is(true));
+    }
+}
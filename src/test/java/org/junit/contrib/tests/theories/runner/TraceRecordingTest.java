@@ -0,0 +1,106 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.StateDirectory;
+import org.junit.contrib.theories.internal.TraceReader;
+import org.junit.contrib.theories.internal.TraceRecorder;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class TraceRecordingTest {
+    @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before public void enableTracing() {
+        System.setProperty(StateDirectory.DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+        System.setProperty(TraceRecorder.ENABLED_PROPERTY, "true");
+    }
+
+    @After public void disableTracing() {
+        System.clearProperty(StateDirectory.DIRECTORY_PROPERTY);
+        System.clearProperty(TraceRecorder.ENABLED_PROPERTY);
+    }
+
+    @RunWith(Theories.class)
+    public static class MixedOutcomes {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5 };
+
+        @Theory public void holds(int first, int second) {
+            assumeTrue(first != 2);
+            assertFalse(first == 5 && second == 5);
+        }
+    }
+
+    @Test public void recordsEveryAssignmentAndSupplierCall() throws Exception {
+        assertThat(testResult(MixedOutcomes.class), hasFailureContaining("holds(\"5\" <from INTS[4]>"));
+
+        File trace = new File(temporaryFolder.getRoot(),
+                "trace/" + MixedOutcomes.class.getName().replace('$', '_') + "#holds.trace");
+        StringBuilder csv = new StringBuilder();
+        TraceReader.toCsv(trace.toPath(), csv);
+
+        String[] rows = csv.toString().split("\n");
+        assertThat(rows[0], is("kind,index,thread,start_nanos,end_nanos,duration_nanos,outcome,values"));
+
+        TreeSet<Long> indices = new TreeSet<>();
+        List<String> outcomes = new ArrayList<>();
+        List<String> suppliers = new ArrayList<>();
+        for (String each : Arrays.asList(rows).subList(1, rows.length)) {
+            String[] columns = each.split(",", -1);
+            assertTrue(Long.parseLong(columns[5]) >= 0);
+            if (columns[0].equals("assignment")) {
+                indices.add(Long.parseLong(columns[1]));
+                outcomes.add(columns[6]);
+            } else {
+                suppliers.add(columns[1] + ":" + columns[7]);
+            }
+        }
+
+        assertThat(indices.size(), is(25));
+        assertThat(indices.first(), is(0L));
+        assertThat(indices.last(), is(24L));
+        assertThat(outcomes.stream().filter("succeeded"::equals).count(), is(19L));
+        assertThat(outcomes.stream().filter("violated assumption"::equals).count(), is(5L));
+        assertThat(outcomes.stream().filter("failed"::equals).count(), is(1L));
+        // one for x, and one for y under each value of x; then one for each as the combinations are numbered, to
+        // give the failure a reproduction token
+        assertThat(suppliers, is(Arrays.asList("0:5", "1:5", "1:5", "1:5", "1:5", "1:5", "0:5", "1:5")));
+    }
+
+    @Test public void keepsBuffersCopiedInBeforeTheTraceIsClosed() throws Exception {
+        try (TraceRecorder recorder = TraceRecorder.open("Unclosed#holds")) {
+            for (int i = 0; i < 1500; i++) {
+                recorder.supplier(0, i, i, i + 1);
+            }
+
+            StringBuilder csv = new StringBuilder();
+            TraceReader.toCsv(new File(temporaryFolder.getRoot(), "trace/Unclosed#holds.trace").toPath(), csv);
+            assertThat(csv.toString().split("\n").length, is(1 + 1024));
+        }
+    }
+
+    @Test public void recordsNothingUnlessEnabled() {
+        System.clearProperty(TraceRecorder.ENABLED_PROPERTY);
+
+        testResult(MixedOutcomes.class);
+
+        assertThat(new File(temporaryFolder.getRoot(), "trace").exists(), is(false));
+    }
+}
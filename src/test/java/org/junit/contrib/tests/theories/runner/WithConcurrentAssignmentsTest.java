@@ -0,0 +1,103 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.AssignmentExecutor;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class WithConcurrentAssignmentsTest {
+    @RunWith(Theories.class)
+    public static class ManyBlockingAssignments {
+        static final AtomicInteger runs = new AtomicInteger();
+
+        @DataPoints public static int[] ints() {
+            int[] ints = new int[30];
+            for (int i = 0; i < ints.length; i++) {
+                ints[i] = i;
+            }
+            return ints;
+        }
+
+        @Theory(maxConcurrentAssignments = 1000) public void blocks(int x, int y) throws InterruptedException {
+            assumeTrue(x != y);
+            Thread.sleep(1);
+            runs.incrementAndGet();
+        }
+    }
+
+    @Test public void runsEveryAssignment() {
+        ManyBlockingAssignments.runs.set(0);
+
+        assertThat(testResult(ManyBlockingAssignments.class), isSuccessful());
+        assertThat(ManyBlockingAssignments.runs.get(), is(30 * 29));
+    }
+
+    @RunWith(Theories.class)
+    public static class OneFailingAssignment {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+        @Theory(maxConcurrentAssignments = 4) public void notFive(int x) {
+            assertThat(x, not(5));
+        }
+    }
+
+    @Test public void reportsFailingAssignment() {
+        assertThat(testResult(OneFailingAssignment.class), hasSingleFailureContaining("notFive(\"5\" <from INTS[4]>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class NoAssignmentSatisfiesAssumptions {
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4 };
+
+        @Theory(maxConcurrentAssignments = 4) public void never(int x) {
+            assumeTrue(false);
+        }
+    }
+
+    @Test public void failsWhenEveryAssignmentViolatesAssumptions() {
+        assertThat(testResult(NoAssignmentSatisfiesAssumptions.class), hasSingleFailureContaining("Never found"));
+    }
+
+    @RunWith(Theories.class)
+    public static class RecordsThreads {
+        static final Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        static final AtomicInteger inFlight = new AtomicInteger();
+        static final AtomicInteger mostInFlight = new AtomicInteger();
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+        @Theory(maxConcurrentAssignments = 4) public void records(int x) throws InterruptedException {
+            mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread());
+            Thread.sleep(1);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Test public void runsAssignmentsOneAfterAnotherWhenVirtualThreadsAreTurnedOff() {
+        RecordsThreads.threads.clear();
+        RecordsThreads.mostInFlight.set(0);
+        System.setProperty(AssignmentExecutor.VIRTUAL_THREADS_PROPERTY, "false");
+        try {
+            assertThat(testResult(RecordsThreads.class), isSuccessful());
+        } finally {
+            System.clearProperty(AssignmentExecutor.VIRTUAL_THREADS_PROPERTY);
+        }
+
+        assertThat(RecordsThreads.threads, is(Collections.singleton(Thread.currentThread())));
+        assertThat(RecordsThreads.mostInFlight.get(), is(1));
+    }
+}
@@ -0,0 +1,117 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.contrib.theories.ConcurrentTheories;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.contrib.theories.internal.ConcurrentTheoryScheduler;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+
+import static java.util.concurrent.TimeUnit.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class WithConcurrentTheoriesTest {
+    private int parallelism;
+
+    @Before public void widenPool() {
+        parallelism = ConcurrentTheoryScheduler.getParallelism();
+        ConcurrentTheoryScheduler.setParallelism(4);
+    }
+
+    @After public void restorePool() {
+        ConcurrentTheoryScheduler.setParallelism(parallelism);
+    }
+
+    @RunWith(Theories.class)
+    @ConcurrentTheories
+    public static class TheoriesThatMeet {
+        static CountDownLatch bothStarted;
+
+        @DataPoints public static final int[] INTS = { 1 };
+
+        @Theory public void first(int x) throws InterruptedException {
+            meet();
+        }
+
+        @Theory public void second(int x) throws InterruptedException {
+            meet();
+        }
+
+        private static void meet() throws InterruptedException {
+            bothStarted.countDown();
+            assertTrue("other theory never started", bothStarted.await(10, SECONDS));
+        }
+    }
+
+    @Test public void runsTheoriesConcurrently() {
+        TheoriesThatMeet.bothStarted = new CountDownLatch(2);
+
+        assertThat(testResult(TheoriesThatMeet.class), isSuccessful());
+    }
+
+    @RunWith(Theories.class)
+    @ConcurrentTheories
+    public static class SharedDataPointsMethod {
+        static final AtomicInteger invocations = new AtomicInteger();
+
+        @DataPoints public static int[] ints() {
+            invocations.incrementAndGet();
+            return new int[] { 1, 2, 3 };
+        }
+
+        @Theory public void first(int x, int y) {
+        }
+
+        @Theory public void second(int x) {
+        }
+
+        @Theory public void third(int x, int y, int z) {
+        }
+    }
+
+    @Test public void invokesDataPointsMethodsOnce() {
+        SharedDataPointsMethod.invocations.set(0);
+
+        assertThat(testResult(SharedDataPointsMethod.class), isSuccessful());
+        assertThat(SharedDataPointsMethod.invocations.get(), is(1));
+    }
+
+    @RunWith(Theories.class)
+    @ConcurrentTheories
+    public static class OneFailure {
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        @Theory public void passes(int x) {
+        }
+
+        @Theory public void fails(int x, int y) {
+            fail("expected");
+        }
+
+        @Test public void alsoPasses() {
+        }
+    }
+
+    @Test public void reportsFailuresOfConcurrentTheories() {
+        assertThat(testResult(OneFailure.class), hasSingleFailureContaining("fails("));
+    }
+
+    @Test public void startsTheoriesWithMostParametersFirst() throws Exception {
+        StringBuilder order = new StringBuilder();
+        for (Description each : new Theories(SharedDataPointsMethod.class).getDescription().getChildren()) {
+            order.append(each.getMethodName()).append(' ');
+        }
+
+        assertThat(order.toString(), is("third first second "));
+    }
+}
@@ -0,0 +1,131 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.contrib.theories.AfterPrefix;
+import org.junit.contrib.theories.BeforePrefix;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.runner.RunWith;
+
+import static java.util.Arrays.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class WithPrefixFixturesTest {
+    @RunWith(Theories.class)
+    public static class FixturesForLeadingParameter {
+        static final List<String> events = new ArrayList<>();
+
+        @DataPoints public static final String[] FILES = { "a", "b" };
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        @BeforePrefix public static void load(String file) {
+            events.add("load " + file);
+        }
+
+        @AfterPrefix public static void unload(String file) {
+            events.add("unload " + file);
+        }
+
+        @Theory public void query(String file, int x) {
+            events.add(file + x);
+        }
+    }
+
+    @Test public void runsFixturesOncePerLeadingValue() {
+        FixturesForLeadingParameter.events.clear();
+
+        assertThat(testResult(FixturesForLeadingParameter.class), isSuccessful());
+        assertThat(FixturesForLeadingParameter.events, is(asList(
+                "load a", "a1", "a2", "a3", "unload a",
+                "load b", "b1", "b2", "b3", "unload b")));
+    }
+
+    @RunWith(Theories.class)
+    public static class FixturesForTwoLeadingParameters {
+        static int loads;
+
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        @BeforePrefix public static void pair(int x, int y) {
+            ++loads;
+        }
+
+        @Theory public void triple(int x, int y, int z) {
+        }
+
+        @Theory public void single(int x) {
+        }
+    }
+
+    @Test public void appliesFixturesByNumberOfLeadingParameters() {
+        FixturesForTwoLeadingParameters.loads = 0;
+
+        assertThat(testResult(FixturesForTwoLeadingParameters.class), isSuccessful());
+        assertThat(FixturesForTwoLeadingParameters.loads, is(4));
+    }
+
+    @RunWith(Theories.class)
+    public static class FailingFixture {
+        @DataPoints public static final String[] FILES = { "good", "bad" };
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        @BeforePrefix public static void load(String file) {
+            if ("bad".equals(file)) {
+                throw new IllegalStateException("cannot load");
+            }
+        }
+
+        @Theory public void query(String file, int x) {
+        }
+    }
+
+    @Test public void reportsFixtureFailureAgainstPrefix() {
+        assertThat(testResult(FailingFixture.class), hasSingleFailureContaining("query(\"bad\" <from FILES[1]>)"));
+    }
+
+    @RunWith(Theories.class)
+    public static class AssumingFixture {
+        static int queries;
+
+        @DataPoints public static final String[] FILES = { "good", "skipped" };
+        @DataPoints public static final int[] INTS = { 1, 2 };
+
+        @BeforePrefix public static void load(String file) {
+            assumeThat(file, is("good"));
+        }
+
+        @Theory public void query(String file, int x) {
+            ++queries;
+        }
+    }
+
+    @Test public void skipsPrefixWhenFixtureViolatesAssumption() {
+        AssumingFixture.queries = 0;
+
+        assertThat(testResult(AssumingFixture.class), isSuccessful());
+        assertThat(AssumingFixture.queries, is(2));
+    }
+
+    @RunWith(Theories.class)
+    public static class NonStaticFixture {
+        @DataPoints public static final int[] INTS = { 1 };
+
+        @BeforePrefix public void load(int x) {
+        }
+
+        @Theory public void anything(int x) {
+        }
+    }
+
+    @Test public void fixturesMustBeStatic() {
+        assertThat(testResult(NonStaticFixture.class), hasSingleFailureContaining("should be static"));
+    }
+}
@@ -0,0 +1,82 @@
+package org.junit.contrib.tests.theories.runner;
+
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.ReusableTestInstance;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class WithReusableTestInstanceTest {
+    @RunWith(Theories.class)
+    @ReusableTestInstance
+    public static class ReusedPerConstructorAssignment {
+        static int instances;
+
+        @DataPoints public static final String[] STRINGS = { "a", "b" };
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        public ReusedPerConstructorAssignment(String s) {
+            ++instances;
+        }
+
+        @Theory public void anything(int x) {
+        }
+    }
+
+    @Test public void createsOneInstancePerConstructorAssignment() {
+        ReusedPerConstructorAssignment.instances = 0;
+
+        assertThat(testResult(ReusedPerConstructorAssignment.class), isSuccessful());
+        assertThat(ReusedPerConstructorAssignment.instances, is(2));
+    }
+
+    @RunWith(Theories.class)
+    @ReusableTestInstance
+    public static class ReusedWithNoConstructorParameters {
+        static int instances;
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        public ReusedWithNoConstructorParameters() {
+            ++instances;
+        }
+
+        @Theory public void anything(int x, int y) {
+        }
+    }
+
+    @Test public void createsOneInstanceWhenConstructorTakesNoParameters() {
+        ReusedWithNoConstructorParameters.instances = 0;
+
+        assertThat(testResult(ReusedWithNoConstructorParameters.class), isSuccessful());
+        assertThat(ReusedWithNoConstructorParameters.instances, is(1));
+    }
+
+    @RunWith(Theories.class)
+    public static class NotReused {
+        static int instances;
+
+        @DataPoints public static final String[] STRINGS = { "a", "b" };
+        @DataPoints public static final int[] INTS = { 1, 2, 3 };
+
+        public NotReused(String s) {
+            ++instances;
+        }
+
+        @Theory public void anything(int x) {
+        }
+    }
+
+    @Test public void createsInstancePerAssignmentByDefault() {
+        NotReused.instances = 0;
+
+        assertThat(testResult(NotReused.class), isSuccessful());
+        assertThat(NotReused.instances, is(6));
+    }
+}
@@ -0,0 +1,76 @@
+package org.junit.contrib.tests.theories.runner;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.contrib.theories.DataPoints;
+import org.junit.contrib.theories.Theories;
+import org.junit.contrib.theories.Theory;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.experimental.results.PrintableResult.*;
+import static org.junit.experimental.results.ResultMatchers.*;
+
+public class WithTheoryTimeoutsTest {
+    @RunWith(Theories.class)
+    public static class SlowAssignment {
+        @DataPoints public static final int[] DELAYS = { 0, 10000 };
+
+        @Theory(assignmentTimeout = 50) public void sleeps(int delay) throws InterruptedException {
+            Thread.sleep(delay);
+        }
+    }
+
+    @Test public void failsAssignmentThatOverruns() {
+        assertThat(
+                testResult(SlowAssignment.class),
+                allOf(hasSingleFailureContaining("sleeps(\"10000\" <from DELAYS[1]>)"),
+                        hasFailureContaining("timed out after 50 milliseconds")));
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @RunWith(Theories.class)
+    public static class QuickAssignments {
+        static int runs;
+        static final Set<Thread> threads = new HashSet<>();
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5 };
+
+        @Theory(assignmentTimeout = 1000) public void quick(int x, int y) {
+            ++runs;
+            threads.add(Thread.currentThread());
+        }
+    }
+
+    @Test public void runsAssignmentsOnCallingThread() {
+        QuickAssignments.runs = 0;
+        QuickAssignments.threads.clear();
+
+        assertThat(testResult(QuickAssignments.class), isSuccessful());
+        assertThat(QuickAssignments.runs, is(25));
+        assertEquals(Collections.singleton(Thread.currentThread()), QuickAssignments.threads);
+    }
+
+    @RunWith(Theories.class)
+    public static class SlowTheory {
+        static int runs;
+
+        @DataPoints public static final int[] INTS = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+
+        @Theory(timeout = 100) public void sleeps(int x) throws InterruptedException {
+            ++runs;
+            Thread.sleep(40);
+        }
+    }
+
+    @Test public void stopsTheoryThatOverruns() {
+        SlowTheory.runs = 0;
+
+        assertThat(testResult(SlowTheory.class), hasSingleFailureContaining("timed out after 100 milliseconds"));
+        assertTrue(SlowTheory.runs < SlowTheory.INTS.length);
+    }
+}